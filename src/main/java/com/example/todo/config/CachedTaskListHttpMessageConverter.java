@@ -0,0 +1,52 @@
+package com.example.todo.config;
+
+import com.example.todo.service.CachedTaskList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link CachedTaskList} as JSON from the bytes it keeps, straight to the response. Spring
+ * Boot puts this converter ahead of the Jackson one; other media types still go through Jackson.
+ */
+@Component
+public class CachedTaskListHttpMessageConverter extends AbstractHttpMessageConverter<CachedTaskList> {
+
+    private final ObjectMapper objectMapper;
+
+    public CachedTaskListHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CachedTaskList.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CachedTaskList readInternal(Class<? extends CachedTaskList> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task lists are only written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(CachedTaskList tasks, MediaType contentType) throws IOException {
+        return (long) tasks.toJson(objectMapper).length;
+    }
+
+    @Override
+    protected void writeInternal(CachedTaskList tasks, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(tasks.toJson(objectMapper));
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.todo.controller;
 
+import com.example.todo.model.dto.TaskArchiveStatus;
 import com.example.todo.model.dto.UserDTO;
 import com.example.todo.service.AdminService;
+import com.example.todo.service.TaskArchiveJob;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -18,11 +25,54 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final TaskArchiveJob taskArchiveJob;
 
+    /**
+     * Keyset page of the users with their roles and task counts. When the page is full, the id to
+     * pass as {@code after} for the next one is sent in the {@value TaskController#NEXT_CURSOR_HEADER} header.
+     */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<UserDTO> users = adminService.getAllUsers();
+    public ResponseEntity<List<UserDTO>> getAllUsers(@RequestParam(required = false) Long after,
+                                                     @RequestParam(required = false) Integer limit) {
+        List<UserDTO> users = adminService.getUserPage(after, limit);
+        if (!users.isEmpty() && users.size() >= AdminService.resolvePageSize(limit)) {
+            return ResponseEntity.ok()
+                    .header(TaskController.NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()))
+                    .body(users);
+        }
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/archive")
+    public ResponseEntity<TaskArchiveStatus> getArchiveStatus() {
+        return ResponseEntity.ok(taskArchiveJob.getStatus());
+    }
+
+    /**
+     * Starts moving done tasks not changed for {@code olderThanDays} days (the configured default
+     * when absent) to the archive. Answers 409 if a run is already in progress.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<TaskArchiveStatus> startArchive(@RequestParam(required = false) Integer olderThanDays) {
+        boolean started = taskArchiveJob.start(olderThanDays == null ? null : Duration.ofDays(olderThanDays));
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(taskArchiveJob.getStatus());
+    }
+
+    @PostMapping("/archive/cancel")
+    public ResponseEntity<TaskArchiveStatus> cancelArchive() {
+        taskArchiveJob.cancel();
+        return ResponseEntity.ok(taskArchiveJob.getStatus());
+    }
+
+    /**
+     * Changes the chunk size and the pause between chunks, also for a run in progress.
+     */
+    @PutMapping("/archive/throttle")
+    public ResponseEntity<TaskArchiveStatus> throttleArchive(@RequestParam(required = false) Integer chunkSize,
+                                                             @RequestParam(required = false) Long pauseMillis) {
+        taskArchiveJob.throttle(chunkSize, pauseMillis == null ? null : Duration.ofMillis(pauseMillis));
+        return ResponseEntity.ok(taskArchiveJob.getStatus());
+    }
+
 }
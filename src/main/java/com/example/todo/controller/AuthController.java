@@ -1,11 +1,19 @@
 package com.example.todo.controller;
 
+import com.example.todo.exception.UnauthorizedException;
 import com.example.todo.model.dto.AuthRequest;
 import com.example.todo.model.dto.AuthResponse;
+import com.example.todo.model.dto.RefreshRequest;
 import com.example.todo.model.dto.RegisterRequest;
 import com.example.todo.security.JwtUtil;
+import com.example.todo.security.PasswordHashingExecutor;
+import com.example.todo.security.TokenRevocationList;
+import com.example.todo.security.TokenType;
+import com.example.todo.security.VerifiedToken;
 import com.example.todo.service.UserService;
+import io.jsonwebtoken.JwtException;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,6 +21,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @AllArgsConstructor
@@ -21,19 +32,74 @@ public class AuthController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TokenRevocationList revocationList;
 
+    // Both endpoints hash or verify a password, so they run on the bounded hashing pool
+    // and release the request thread while BCrypt is working.
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest req) {
-        userService.register(req.getUsername(), req.getPassword());
-        return ResponseEntity.ok("User created");
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterRequest req) {
+        return CompletableFuture.supplyAsync(() -> {
+            userService.register(req.getUsername(), req.getPassword());
+            return ResponseEntity.ok("User created");
+        }, passwordHashingExecutor);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest req) {
-        Authentication auth = authManager.authenticate(
-            new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
-        UserDetails user = (UserDetails) auth.getPrincipal();
-        String token = jwtUtil.generateToken(user);
-        return ResponseEntity.ok(new AuthResponse(token));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest req) {
+        return CompletableFuture.supplyAsync(() -> {
+            Authentication auth = authManager.authenticate(
+                new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+            UserDetails user = (UserDetails) auth.getPrincipal();
+            return ResponseEntity.ok(issueTokens(user));
+        }, passwordHashingExecutor);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token. The presented
+     * refresh token is revoked on first use, so replaying it is rejected.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest req) {
+        VerifiedToken refreshToken = verify(req.getRefreshToken(), TokenType.REFRESH);
+        if (!revocationList.revoke(refreshToken.getId(), refreshToken.getExpiresAt())) {
+            throw new UnauthorizedException("Refresh token has already been used");
+        }
+        UserDetails user;
+        try {
+            user = userService.loadUserByUsername(refreshToken.getUsername());
+        } catch (NoSuchElementException e) {
+            throw new UnauthorizedException("Unknown user " + refreshToken.getUsername());
+        }
+        return ResponseEntity.ok(issueTokens(user));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequest req,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader) {
+        VerifiedToken refreshToken = verify(req.getRefreshToken(), TokenType.REFRESH);
+        revocationList.revoke(refreshToken.getId(), refreshToken.getExpiresAt());
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            VerifiedToken accessToken = verify(authHeader.substring(7), TokenType.ACCESS);
+            revocationList.revoke(accessToken.getId(), accessToken.getExpiresAt());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private AuthResponse issueTokens(UserDetails user) {
+        return new AuthResponse(jwtUtil.generateToken(user), jwtUtil.generateRefreshToken(user));
+    }
+
+    private VerifiedToken verify(String token, TokenType expectedType) {
+        VerifiedToken verified;
+        try {
+            verified = jwtUtil.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new UnauthorizedException("Invalid token");
+        }
+        if (verified.getType() != expectedType || verified.getId() == null || revocationList.isRevoked(verified.getId())) {
+            throw new UnauthorizedException("Invalid token");
+        }
+        return verified;
     }
 }
\ No newline at end of file
@@ -1,11 +1,24 @@
 package com.example.todo.controller;
 
+import com.example.todo.model.dto.TaskChangesDTO;
 import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.dto.TaskField;
+import com.example.todo.model.dto.TaskOperation;
+import com.example.todo.model.dto.TaskOperationResult;
 import com.example.todo.model.entity.Task;
+import com.example.todo.service.IdempotencyStore;
+import com.example.todo.service.TaskCreateBatcher;
+import com.example.todo.service.TaskEventStream;
+import com.example.todo.service.TaskExportService;
+import com.example.todo.service.TaskSearchIndex;
 import com.example.todo.service.TaskService;
+import com.example.todo.service.TaskSyncService;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,43 +26,230 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/tasks")
 @AllArgsConstructor
 public class TaskController {
     private final TaskService taskService;
+    private final TaskExportService taskExportService;
+    private final TaskSyncService taskSyncService;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskEventStream taskEventStream;
+    private final IdempotencyStore idempotencyStore;
+    private final TaskCreateBatcher taskCreateBatcher;
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Optional on the mutating endpoints; a retry with the same key gets the original response. */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Without parameters, returns every task of the user. With {@code after}, {@code limit},
+     * {@code done} or {@code titlePrefix}, returns one keyset page; when the page is full the id
+     * to pass as {@code after} for the next one is sent in the {@value #NEXT_CURSOR_HEADER} header.
+     * The ETag is the version of the user's tasks; a matching {@code If-None-Match} is answered
+     * with 304 before any task is loaded.
+     */
     @GetMapping("/list")
-    public List<TaskDTO> listTasks(Principal principal) {
-        List<TaskDTO> taskForUser = taskService.getTasksForUser(principal.getName());
-        return taskForUser;
+    public ResponseEntity<List<TaskDTO>> listTasks(@RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) Boolean done,
+                                                   @RequestParam(required = false) String titlePrefix,
+                                                   Principal principal,
+                                                   WebRequest request) {
+        String username = principal.getName();
+        long version = taskService.getVersion(username);
+        String etag = etag(version);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (after == null && limit == null && done == null && titlePrefix == null) {
+            return revalidated(etag).body(taskService.getTasksForUser(username, version));
+        }
+        List<TaskDTO> page = taskService.getTaskPage(username, after, limit, done, titlePrefix);
+        if (!page.isEmpty() && page.size() >= TaskService.resolvePageSize(limit)) {
+            return revalidated(etag)
+                    .header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()))
+                    .body(page);
+        }
+        return revalidated(etag).body(page);
+    }
+
+    /**
+     * Same as {@link #listTasks}, but each task only has the comma-separated {@code fields}, e.g.
+     * {@code fields=title,done}, plus its id. Only those columns are read from the database.
+     */
+    @GetMapping(value = "/list", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> listTaskFields(@RequestParam String fields,
+                                                                    @RequestParam(required = false) Long after,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    @RequestParam(required = false) Boolean done,
+                                                                    @RequestParam(required = false) String titlePrefix,
+                                                                    Principal principal,
+                                                                    WebRequest request) {
+        String username = principal.getName();
+        Set<TaskField> selected = TaskField.parse(fields);
+        String etag = etag(taskService.getVersion(username));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        boolean paged = after != null || limit != null || done != null || titlePrefix != null;
+        Integer pageSize = paged ? TaskService.resolvePageSize(limit) : null;
+        List<Map<String, Object>> tasks = taskService.getTaskFields(username, selected, after, pageSize, done, titlePrefix);
+        if (paged && !tasks.isEmpty() && tasks.size() >= pageSize) {
+            return revalidated(etag)
+                    .header(NEXT_CURSOR_HEADER, String.valueOf(tasks.get(tasks.size() - 1).get(TaskField.ID.getProperty())))
+                    .body(tasks);
+        }
+        return revalidated(etag).body(tasks);
+    }
+
+    /**
+     * Keyset page of the user's archived tasks, which /tasks/list no longer returns. Paged like
+     * /tasks/list, with the next cursor in the {@value #NEXT_CURSOR_HEADER} header.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<List<TaskDTO>> listArchivedTasks(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           Principal principal) {
+        List<TaskDTO> page = taskService.getArchivedTaskPage(principal.getName(), after, limit);
+        if (!page.isEmpty() && page.size() >= TaskService.resolvePageSize(limit)) {
+            return ResponseEntity.ok()
+                    .header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()))
+                    .body(page);
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Returns one task of the user, with the same ETag as {@link #listTasks}. The ETag doesn't
+     * identify the task, so ownership is checked before {@code If-None-Match} is.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<TaskDTO> getTask(@PathVariable Long id, Principal principal, WebRequest request) {
+        String username = principal.getName();
+        // Version first, so the ETag is never newer than the task sent with it.
+        String etag = etag(taskService.getVersion(username));
+        TaskDTO task = taskService.getTask(id, username);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(task);
+    }
+
+    /**
+     * Full-text search over the titles and descriptions of the user's tasks, best matches first.
+     * Every word of {@code q} has to match the start of a word of the task.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDTO>> search(@RequestParam String q,
+                                                @RequestParam(required = false) Integer limit,
+                                                Principal principal) {
+        return ResponseEntity.ok(taskSearchIndex.search(principal.getName(), q, limit));
+    }
+
+    /**
+     * Inserts, updates and deletes after {@code since}, for clients that keep a local copy. Start
+     * with {@code since=0}, then pass {@code nextSince} and {@code nextAfterId} from each response
+     * until {@code hasMore} is false.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesDTO> changes(@RequestParam(defaultValue = "0") long since,
+                                                  @RequestParam(defaultValue = "0") long afterId,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  Principal principal) {
+        return ResponseEntity.ok(taskSyncService.getChanges(principal.getName(), since, afterId, limit));
+    }
+
+    /**
+     * Server-Sent Events stream of the user's task changes, to use instead of polling /tasks/list.
+     * Starts with a {@code snapshot} event holding every task, followed by {@code created},
+     * {@code updated} and {@code deleted} events. Clients reconnect when the stream ends.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Principal principal) {
+        return taskEventStream.subscribe(principal.getName());
+    }
+
+    /**
+     * Streams every task of the user as newline-delimited JSON, reading them from a database cursor.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(Principal principal) {
+        String username = principal.getName();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> taskExportService.exportTasks(username, out));
     }
 
     @PostMapping("/create")
-    public ResponseEntity<TaskDTO> create(@RequestBody TaskDTO task, Principal principal) {
-        TaskDTO task1 = taskService.create(task, principal.getName());
-        return ResponseEntity.status(HttpStatus.CREATED).body(task1);
+    public ResponseEntity<TaskDTO> create(@RequestBody TaskDTO task,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                          Principal principal) {
+        String username = principal.getName();
+        return idempotencyStore.execute(username, idempotencyKey, Arrays.asList("POST /tasks/create", task), () -> {
+            // Goes straight to TaskService.create unless group commit is enabled.
+            TaskDTO task1 = taskCreateBatcher.create(task, username);
+            return ResponseEntity.status(HttpStatus.CREATED).body(task1);
+        });
+    }
+
+    /**
+     * Applies create, update and delete operations in one transaction and returns one result per operation.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskOperationResult>> batch(@RequestBody List<TaskOperation> operations,
+                                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                           Principal principal) {
+        String username = principal.getName();
+        return idempotencyStore.execute(username, idempotencyKey, Arrays.asList("POST /tasks/batch", operations),
+                () -> ResponseEntity.ok(taskService.applyBatch(operations, username)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<TaskDTO> update(@PathVariable Long id, @RequestBody TaskDTO task, Principal principal) {
-        ResponseEntity<TaskDTO> existingTask = taskService.update(id, task, principal.getName());
-        return new ResponseEntity<>(existingTask.getBody(), HttpStatus.OK);
+    public ResponseEntity<TaskDTO> update(@PathVariable Long id, @RequestBody TaskDTO task,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                          Principal principal) {
+        String username = principal.getName();
+        return idempotencyStore.execute(username, idempotencyKey, Arrays.asList("PUT /tasks/" + id, task), () -> {
+            ResponseEntity<TaskDTO> existingTask = taskService.update(id, task, username);
+            return new ResponseEntity<>(existingTask.getBody(), HttpStatus.OK);
+        });
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id, Principal principal) {
-        ResponseEntity<?> task = taskService.delete(id, principal.getName());
-        if ((task == null)) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        taskService.delete(id, principal.getName());
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> delete(@PathVariable Long id,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                    Principal principal) {
+        String username = principal.getName();
+        return idempotencyStore.execute(username, idempotencyKey, "DELETE /tasks/" + id,
+                () -> taskService.delete(id, username));
+    }
+
+    // Weak, so that Tomcat still gzips the response; it leaves responses with a strong ETag alone.
+    private static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // Lets clients keep the response but revalidate it on every use. The ETag is only unique per
+    // user and does not change with the negotiated format (JSON, CBOR or Smile), hence the Vary.
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT);
     }
 }
\ No newline at end of file
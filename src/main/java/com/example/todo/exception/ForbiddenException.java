@@ -1,5 +1,7 @@
 package com.example.todo.exception;
 
 public class ForbiddenException extends RuntimeException {
-    public ForbiddenException(String message) {}
+    public ForbiddenException(String message) {
+        super(message);
+    }
 }
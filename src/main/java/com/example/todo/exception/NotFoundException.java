@@ -1,5 +1,7 @@
 package com.example.todo.exception;
 
 public class NotFoundException extends RuntimeException {
-    public NotFoundException(String message) {}
+    public NotFoundException(String message) {
+        super(message);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.todo.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -7,8 +8,12 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @RestControllerAdvice
 public class RestExceptionHandler {
@@ -29,4 +34,34 @@ public class RestExceptionHandler {
         , e.getMessage(), LocalDateTime.now());
         return builResponseEntity(apiException);
     }
+
+    @ExceptionHandler({BadRequestException.class})
+    public ResponseEntity<Object> handleBadRequestException(BadRequestException e) {
+        ApiException apiException = new ApiException(BAD_REQUEST
+                , e.getMessage(), LocalDateTime.now());
+        return builResponseEntity(apiException);
+    }
+
+    @ExceptionHandler({ConflictException.class})
+    public ResponseEntity<Object> handleConflictException(ConflictException e) {
+        ApiException apiException = new ApiException(CONFLICT
+                , e.getMessage(), LocalDateTime.now());
+        return builResponseEntity(apiException);
+    }
+
+    @ExceptionHandler({UnauthorizedException.class})
+    public ResponseEntity<Object> handleUnauthorizedException(UnauthorizedException e) {
+        ApiException apiException = new ApiException(UNAUTHORIZED
+                , e.getMessage(), LocalDateTime.now());
+        return builResponseEntity(apiException);
+    }
+
+    @ExceptionHandler({ServiceUnavailableException.class})
+    public ResponseEntity<Object> handleServiceUnavailableException(ServiceUnavailableException e) {
+        ApiException apiException = new ApiException(SERVICE_UNAVAILABLE
+                , e.getMessage(), LocalDateTime.now());
+        return ResponseEntity.status(apiException.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(apiException);
+    }
 }
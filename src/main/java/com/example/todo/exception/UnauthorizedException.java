@@ -0,0 +1,7 @@
+package com.example.todo.exception;
+
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -9,5 +9,6 @@ import lombok.NoArgsConstructor;
 @Data
 public class AuthResponse {
     private String token;
+    private String refreshToken;
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.example.todo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RefreshRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,32 @@
+package com.example.todo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of the archive job. {@code cutoff}, the counters and the timestamps describe the
+ * current run, or the last one when the job is idle.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskArchiveStatus {
+    public enum State {
+        IDLE,
+        RUNNING,
+        CANCELLING
+    }
+
+    private State state;
+    private Instant cutoff;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long archivedTasks;
+    private long chunks;
+    private String lastError;
+    private int chunkSize;
+    private long pauseMillis;
+}
@@ -0,0 +1,18 @@
+package com.example.todo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of /tasks/changes. {@code task} is the current state of the task, {@code null} when it was deleted.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskChangeDTO {
+    private Long id;
+    private long seq;
+    private boolean deleted;
+    private TaskDTO task;
+}
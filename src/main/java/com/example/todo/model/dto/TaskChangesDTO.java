@@ -0,0 +1,22 @@
+package com.example.todo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of /tasks/changes ordered by {@code (seq, id)}. {@code nextSince} and {@code nextAfterId}
+ * are the parameters of the next request; once {@code hasMore} is false the client is up to date
+ * and keeps {@code nextSince} as its watermark.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskChangesDTO {
+    private List<TaskChangeDTO> changes;
+    private long nextSince;
+    private long nextAfterId;
+    private boolean hasMore;
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Data
 public class TaskDTO {
+    private Long id;
     private String title;
     private String description;
     private boolean done;
@@ -0,0 +1,47 @@
+package com.example.todo.model.dto;
+
+import com.example.todo.exception.BadRequestException;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The {@link TaskDTO} properties a client can ask for with {@code fields=}. The id is always returned.
+ */
+public enum TaskField {
+    ID("id"),
+    TITLE("title"),
+    DESCRIPTION("description"),
+    DONE("done");
+
+    private final String property;
+
+    TaskField(String property) {
+        this.property = property;
+    }
+
+    /** Name of the property, both in the JSON and on the entity. */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated list of property names, e.g. {@code title,done}.
+     */
+    public static Set<TaskField> parse(String fields) {
+        Set<TaskField> parsed = EnumSet.of(ID);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown task field " + name + ", expected some of id, title, description, done");
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.todo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a /tasks/batch request. {@code id} is required for updates and deletes,
+ * {@code task} for creates and updates.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskOperation {
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private Type op;
+    private Long id;
+    private TaskDTO task;
+}
@@ -0,0 +1,20 @@
+package com.example.todo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one {@link TaskOperation}, at the same {@code index} as in the request.
+ * {@code status} is the HTTP status the operation would have had on its own endpoint.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskOperationResult {
+    private int index;
+    private TaskOperation.Type op;
+    private int status;
+    private String message;
+    private TaskDTO task;
+}
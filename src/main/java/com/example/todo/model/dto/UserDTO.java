@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.HashSet;
 import java.util.Set;
 
 @Data
@@ -14,4 +15,10 @@ public class UserDTO {
     private Long id;
     private String username;
     private Set<Role> roles;
+    private long taskCount;
+    private long doneTaskCount;
+
+    public UserDTO(Long id, String username) {
+        this(id, username, new HashSet<>(), 0, 0);
+    }
 }
@@ -1,20 +1,37 @@
 package com.example.todo.model.entity;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Entity
 @Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
 public class Task {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @GenericGenerator(name = "task_seq", strategy = "com.example.todo.model.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "task_seq"))
     private Long id;
 
     private String title;
     private String description;
     private boolean done;
 
+    /** Version of the owner's tasks at the last change of this task, see /tasks/changes. */
+    private long modSeq;
+
+    /** Time of the last change, used by the archive job to pick old done tasks. */
+    @UpdateTimestamp
+    private Instant updatedAt;
+
     @ManyToOne
     private User owner;
 }
\ No newline at end of file
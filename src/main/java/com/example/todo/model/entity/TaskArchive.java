@@ -0,0 +1,29 @@
+package com.example.todo.model.entity;
+
+import lombok.Data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * A done task moved out of the {@code task} table by the archive job. Archived tasks are
+ * read-only and keep the id they had.
+ */
+@Entity
+@Data
+public class TaskArchive {
+    @Id
+    private Long id;
+
+    private String title;
+    private String description;
+    private boolean done;
+    private Long ownerId;
+    private long modSeq;
+    private Instant updatedAt;
+
+    @Column(insertable = false, updatable = false)
+    private Instant archivedAt;
+}
@@ -0,0 +1,36 @@
+package com.example.todo.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Left behind by a deleted task so that /tasks/changes can report the deletion.
+ * Task ids are never reused, so a tombstone is only ever inserted.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskTombstone implements Persistable<Long> {
+    @Id
+    private Long taskId;
+
+    private Long ownerId;
+
+    private long modSeq;
+
+    @Override
+    public Long getId() {
+        return taskId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
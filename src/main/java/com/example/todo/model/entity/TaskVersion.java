@@ -0,0 +1,19 @@
+package com.example.todo.model.entity;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Change counter of a user's tasks, incremented in the same transaction as every task write.
+ * Kept out of {@link User} so that task writes don't touch the user row.
+ */
+@Entity
+@Data
+public class TaskVersion {
+    @Id
+    private Long ownerId;
+
+    private long version;
+}
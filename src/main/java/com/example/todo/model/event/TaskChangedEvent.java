@@ -0,0 +1,27 @@
+package com.example.todo.model.event;
+
+import com.example.todo.model.dto.TaskDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by the task write paths. Listeners that keep derived state in sync should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TaskChangedEvent {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final String username;
+    private final Long taskId;
+    /** Version of the owner's tasks the change was committed with. */
+    private final long version;
+    /** State of the task after the change, {@code null} for deletions. */
+    private final TaskDTO task;
+}
@@ -0,0 +1,14 @@
+package com.example.todo.model.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a stored user changes, e.g. their password hash. Caches of users loaded from
+ * the database drop their copy on it.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+    private final String username;
+}
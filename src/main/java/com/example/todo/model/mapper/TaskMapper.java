@@ -22,6 +22,7 @@ public class TaskMapper {
             return null;
         }
         TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setId(task.getId());
         taskDTO.setTitle(task.getTitle());
         taskDTO.setDescription(task.getDescription());
         taskDTO.setDone(task.isDone());
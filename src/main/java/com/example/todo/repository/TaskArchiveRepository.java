@@ -0,0 +1,38 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.entity.TaskArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskArchiveRepository extends JpaRepository<TaskArchive, Long> {
+
+    /**
+     * Keyset page of a user's archived tasks ordered by id.
+     */
+    @Query("select new com.example.todo.model.dto.TaskDTO(a.id, a.title, a.description, a.done)"
+            + " from TaskArchive a where a.ownerId = (select u.id from User u where u.username = :username)"
+            + " and a.id > :afterId order by a.id")
+    List<TaskDTO> findPageByOwnerUsername(@Param("username") String username,
+                                          @Param("afterId") long afterId,
+                                          Pageable pageable);
+
+    /**
+     * Copies the given tasks into the archive, in one statement.
+     *
+     * @return the number of archived tasks
+     */
+    @Modifying
+    @Query("insert into TaskArchive (id, title, description, done, ownerId, modSeq, updatedAt)"
+            + " select t.id, t.title, t.description, t.done, t.owner.id, t.modSeq, t.updatedAt"
+            + " from Task t where t.id in :ids")
+    int copyFromTasks(@Param("ids") Collection<Long> ids);
+}
@@ -1,12 +1,170 @@
 package com.example.todo.repository;
 
+import com.example.todo.model.dto.TaskDTO;
 import com.example.todo.model.entity.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByOwnerUsername(String username);
-}
\ No newline at end of file
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+
+    /**
+     * What the search index keeps of a task.
+     */
+    interface SearchRow {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        boolean isDone();
+        long getModSeq();
+        String getOwnerUsername();
+    }
+
+    /**
+     * A task the archive job may move, with its owner.
+     */
+    interface ArchiveCandidateRow {
+        Long getId();
+        Long getOwnerId();
+        String getOwnerUsername();
+    }
+
+    /**
+     * Done tasks last changed before {@code cutoff}, lowest ids first.
+     */
+    @Query("select t.id as id, o.id as ownerId, o.username as ownerUsername from Task t join t.owner o"
+            + " where t.done = true and t.updatedAt < :cutoff order by t.id")
+    List<ArchiveCandidateRow> findArchiveCandidates(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    /**
+     * Those of the given tasks that are still done and last changed before {@code cutoff}.
+     */
+    @Query("select t.id as id, o.id as ownerId, o.username as ownerUsername from Task t join t.owner o"
+            + " where t.id in :ids and t.done = true and t.updatedAt < :cutoff")
+    List<ArchiveCandidateRow> findArchiveCandidatesByIds(@Param("ids") Collection<Long> ids,
+                                                         @Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Task counts of one owner, see {@link #countByOwnerIds(Collection)}.
+     */
+    interface OwnerTaskCountRow {
+        Long getOwnerId();
+        long getTaskCount();
+        long getDoneTaskCount();
+    }
+
+    /**
+     * Total and done task counts of the given owners, in one grouped query. Owners without
+     * tasks are left out.
+     */
+    @Query("select t.owner.id as ownerId, count(t) as taskCount,"
+            + " sum(case when t.done = true then 1 else 0 end) as doneTaskCount"
+            + " from Task t where t.owner.id in :ownerIds group by t.owner.id")
+    List<OwnerTaskCountRow> countByOwnerIds(@Param("ownerIds") Collection<Long> ownerIds);
+
+    /**
+     * Every task of a user, selected straight into DTOs without loading entities.
+     */
+    @Query("select new com.example.todo.model.dto.TaskDTO(t.id, t.title, t.description, t.done)"
+            + " from Task t where t.owner.username = :username order by t.id")
+    List<TaskDTO> findDTOsByOwnerUsername(@Param("username") String username);
+
+    /**
+     * Keyset page of a user's tasks ordered by id. {@code done} and {@code titlePattern} are optional
+     * filters; the pattern is a LIKE expression using {@code !} as escape character.
+     */
+    @Query("select new com.example.todo.model.dto.TaskDTO(t.id, t.title, t.description, t.done)"
+            + " from Task t where t.owner.username = :username and t.id > :afterId"
+            + " and (:done is null or t.done = :done)"
+            + " and (:titlePattern is null or t.title like :titlePattern escape '!')"
+            + " order by t.id")
+    List<TaskDTO> findPageByOwnerUsername(@Param("username") String username,
+                                          @Param("afterId") long afterId,
+                                          @Param("done") Boolean done,
+                                          @Param("titlePattern") String titlePattern,
+                                          Pageable pageable);
+
+    /**
+     * Forward-only, read-only cursor over a user's tasks. Must be consumed inside a transaction
+     * and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select t from Task t where t.owner.username = :username order by t.id")
+    Stream<Task> streamByOwnerUsername(@Param("username") String username);
+
+    /**
+     * Every task, without loading entities, to build the search index. Must be consumed inside a
+     * transaction and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select t.id as id, t.title as title, t.description as description, t.done as done,"
+            + " t.modSeq as modSeq, o.username as ownerUsername from Task t join t.owner o")
+    Stream<SearchRow> streamAllForSearchIndex();
+
+    /**
+     * What /tasks/changes returns of a changed task.
+     */
+    interface ChangeRow {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        boolean isDone();
+        long getModSeq();
+    }
+
+    /**
+     * Tasks of a user changed after the {@code (modSeq, id)} position and at or before {@code version},
+     * in that order, without loading entities.
+     */
+    @Query("select t.id as id, t.title as title, t.description as description, t.done as done, t.modSeq as modSeq"
+            + " from Task t where t.owner.username = :username"
+            + " and (t.modSeq > :since or (t.modSeq = :since and t.id > :afterId)) and t.modSeq <= :version"
+            + " order by t.modSeq, t.id")
+    List<ChangeRow> findChangesByOwnerUsername(@Param("username") String username,
+                                               @Param("since") long since,
+                                               @Param("afterId") long afterId,
+                                               @Param("version") long version,
+                                               Pageable pageable);
+
+    /**
+     * Updates the task only if it belongs to {@code username}, in a single statement.
+     *
+     * @return the number of updated rows, 0 if the task doesn't exist or belongs to someone else
+     */
+    @Modifying
+    @Query("update Task t set t.title = :title, t.description = :description, t.done = :done, t.modSeq = :modSeq,"
+            + " t.updatedAt = current_timestamp where t.id = :id and t.owner.id = (select u.id from User u where u.username = :username)")
+    int updateOwned(@Param("id") Long id,
+                    @Param("username") String username,
+                    @Param("title") String title,
+                    @Param("description") String description,
+                    @Param("done") boolean done,
+                    @Param("modSeq") long modSeq);
+
+    /**
+     * Deletes the task only if it belongs to {@code username}, in a single statement.
+     *
+     * @return the number of deleted rows, 0 if the task doesn't exist or belongs to someone else
+     */
+    @Modifying
+    @Query("delete from Task t where t.id = :id and t.owner.id = (select u.id from User u where u.username = :username)")
+    int deleteOwned(@Param("id") Long id, @Param("username") String username);
+}
@@ -0,0 +1,17 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.dto.TaskField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Like {@link TaskRepository#findPageByOwnerUsername}, but selects only {@code fields} and returns
+     * one map per task, keyed by property name in {@link TaskField} order. {@code limit} is optional.
+     */
+    List<Map<String, Object>> findFieldsByOwnerUsername(String username, Set<TaskField> fields, long afterId,
+                                                        Boolean done, String titlePattern, Integer limit);
+}
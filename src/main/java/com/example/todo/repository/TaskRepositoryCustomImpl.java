@@ -0,0 +1,57 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.dto.TaskField;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The select list is built from the TaskField enum only, never from request text.
+    @Override
+    public List<Map<String, Object>> findFieldsByOwnerUsername(String username, Set<TaskField> fields, long afterId,
+                                                               Boolean done, String titlePattern, Integer limit) {
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(fields.stream()
+                        .map(field -> "t." + field.getProperty() + " as " + field.getProperty())
+                        .collect(Collectors.joining(", ")))
+                .append(" from Task t where t.owner.username = :username and t.id > :afterId");
+        if (done != null) {
+            jpql.append(" and t.done = :done");
+        }
+        if (titlePattern != null) {
+            jpql.append(" and t.title like :titlePattern escape '!'");
+        }
+        jpql.append(" order by t.id");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+                .setParameter("username", username)
+                .setParameter("afterId", afterId);
+        if (done != null) {
+            query.setParameter("done", done);
+        }
+        if (titlePattern != null) {
+            query.setParameter("titlePattern", titlePattern);
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> task = new LinkedHashMap<>();
+                    fields.forEach(field -> task.put(field.getProperty(), tuple.get(field.getProperty())));
+                    return task;
+                })
+                .collect(Collectors.toList());
+    }
+}
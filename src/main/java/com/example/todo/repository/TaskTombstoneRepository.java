@@ -0,0 +1,27 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.entity.TaskTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    /**
+     * Tombstones of a user's tasks after the {@code (modSeq, taskId)} position and at or before
+     * {@code version}, in that order.
+     */
+    @Query("select t from TaskTombstone t where t.ownerId = (select u.id from User u where u.username = :username)"
+            + " and (t.modSeq > :since or (t.modSeq = :since and t.taskId > :afterId)) and t.modSeq <= :version"
+            + " order by t.modSeq, t.taskId")
+    List<TaskTombstone> findChangesByOwnerUsername(@Param("username") String username,
+                                                   @Param("since") long since,
+                                                   @Param("afterId") long afterId,
+                                                   @Param("version") long version,
+                                                   Pageable pageable);
+}
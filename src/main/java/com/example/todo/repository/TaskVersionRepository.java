@@ -0,0 +1,36 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.entity.TaskVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+
+import java.util.Optional;
+
+@Repository
+public interface TaskVersionRepository extends JpaRepository<TaskVersion, Long> {
+
+    @Query("select v.version from TaskVersion v where v.ownerId = (select u.id from User u where u.username = :username)")
+    Optional<Long> findVersionByUsername(@Param("username") String username);
+
+    /**
+     * Reads the user's version row and locks it until the end of the transaction, like
+     * {@link #increment(String)} does.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from TaskVersion v where v.ownerId = (select u.id from User u where u.username = :username)")
+    Optional<TaskVersion> lockByUsername(@Param("username") String username);
+
+    /**
+     * @return the number of updated rows, 0 if the user doesn't exist
+     */
+    @Modifying
+    @Query("update TaskVersion v set v.version = v.version + 1"
+            + " where v.ownerId = (select u.id from User u where u.username = :username)")
+    int increment(@Param("username") String username);
+}
@@ -1,12 +1,35 @@
 package com.example.todo.repository;
 
+import com.example.todo.model.dto.UserDTO;
+import com.example.todo.model.entity.Role;
 import com.example.todo.model.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    /**
+     * One role of one user, see {@link #findRolesByUserIds(Collection)}.
+     */
+    interface UserRoleRow {
+        Long getUserId();
+        Role getRole();
+    }
+
+    /**
+     * Keyset page of the users ordered by id, selected straight into DTOs without roles.
+     */
+    @Query("select new com.example.todo.model.dto.UserDTO(u.id, u.username) from User u"
+            + " where u.id > :afterId order by u.id")
+    List<UserDTO> findDTOPage(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select u.id as userId, r as role from User u join u.roles r where u.id in :userIds")
+    List<UserRoleRow> findRolesByUserIds(@Param("userIds") Collection<Long> userIds);
+}
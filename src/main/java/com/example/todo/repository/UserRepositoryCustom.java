@@ -0,0 +1,14 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads the user by its natural id, so that repeated lookups are served from the
+     * second-level cache instead of running a query.
+     */
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,25 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.entity.User;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Unwrapping needs a session that outlives the call. Not read-only: with open-in-view the
+    // loaded user stays in the request's session and may still be modified.
+    @Override
+    @Transactional
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
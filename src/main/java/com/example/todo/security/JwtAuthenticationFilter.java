@@ -1,11 +1,10 @@
 package com.example.todo.security;
 
-import com.example.todo.service.UserService;
-
-import lombok.AllArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,29 +15,59 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+/**
+ * Authenticates bearer tokens. In stateless mode (the default) the principal is
+ * built from the verified token's subject and {@code roles} claim, so no SQL is
+ * issued on the request path. With {@code security.jwt.stateless=false} the
+ * user is re-read through {@link PrincipalCache}.
+ */
 @Component
-@AllArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private JwtUtil jwtUtil;
-    private UserService userService;
+    private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
+    private final boolean stateless;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, PrincipalCache principalCache, TokenRevocationList revocationList,
+                                   @Value("${security.jwt.stateless:true}") boolean stateless) {
+        this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.stateless = stateless;
+    }
 
     @Override
     protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(jwt);
+            VerifiedToken token = verify(jwt);
+            String username = token == null ? null : token.getUsername();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                }
+                UserDetails userDetails = stateless
+                        ? new User(username, "", token.getAuthorities())
+                        : principalCache.get(username);
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                SecurityContextHolder.getContext().setAuthentication(auth);
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Only unrevoked access tokens authenticate a request; refresh tokens are accepted on /auth/refresh alone.
+    private VerifiedToken verify(String jwt) {
+        try {
+            VerifiedToken token = jwtUtil.verify(jwt);
+            if (token.getType() != TokenType.ACCESS || revocationList.isRevoked(token.getId())) {
+                return null;
+            }
+            return token;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected bearer token: " + e.getMessage());
+            return null;
+        }
+    }
+}
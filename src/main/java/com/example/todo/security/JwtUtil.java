@@ -1,40 +1,154 @@
 package com.example.todo.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies bearer tokens. {@link #verify(String)} parses and checks a token once
+ * and keeps the result in a bounded cache keyed by the SHA-256 digest of the token, so a
+ * replayed token skips the base64, JSON and HMAC work until it expires.
+ */
 @Component
 public class JwtUtil {
+    private static final String ROLES_CLAIM = "roles";
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(JwtUtil::sha256);
+
     private final String SECRET = "secret123"; // à externaliser
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${security.jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+                   @Value("${security.jwt.refresh-token-ttl:14d}") Duration refreshTokenTtl,
+                   @Value("${security.jwt.token-cache.max-size:50000}") long maxCachedTokens) {
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
 
     public String generateToken(UserDetails userDetails) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userDetails.getUsername())
+                .claim(TOKEN_TYPE_CLAIM, TokenType.ACCESS.name())
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenTtl.toMillis()))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+    }
+
+    /**
+     * Long-lived token that can only be exchanged on /auth/refresh. It carries no roles,
+     * they are read again from the database when the token is used.
+     */
+    public String generateRefreshToken(UserDetails userDetails) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
-                .claim("roles", userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
+                .claim(TOKEN_TYPE_CLAIM, TokenType.REFRESH.name())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + refreshTokenTtl.toMillis()))
                 .signWith(SignatureAlgorithm.HS256, SECRET)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        ByteBuffer key = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified == null) {
+            verified = parse(token);
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = Jwts
                 .parser()
                 .setSigningKey(SECRET)
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
+        Date expiration = claims.getExpiration();
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        return new VerifiedToken(
+                claims.getId(),
+                type == null ? TokenType.ACCESS : TokenType.valueOf(type),
+                claims.getSubject(),
+                extractAuthorities(claims),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+    }
+
+    private List<GrantedAuthority> extractAuthorities(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        return extractUsername(token)
-                .equals(userDetails.getUsername());
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+            long remainingMillis = token.getExpiresAt() - System.currentTimeMillis();
+            return remainingMillis <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.example.todo.security;
+
+import com.example.todo.model.event.UserChangedEvent;
+import com.example.todo.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-based cache of the principals loaded from the database when
+ * {@code security.jwt.stateless} is turned off. A TTL of zero disables caching
+ * and every request goes back to {@link UserService#loadUserByUsername(String)}. A user is
+ * dropped from the cache as soon as a change to it is committed.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserService userService;
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(UserService userService,
+                          @Value("${security.jwt.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.jwt.principal-cache.ttl:60s}") Duration ttl) {
+        this.userService = userService;
+        this.cache = ttl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public UserDetails get(String username) {
+        if (cache == null) {
+            return userService.loadUserByUsername(username);
+        }
+        return cache.get(username, userService::loadUserByUsername);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    public void evict(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Component;
 @Aspect
 @Component
 public class SecurityAspect {
+    private static final String INTERNAL_USE_PREFIX = "[Internal Use]";
 
     @Around("execution(* com.example.todo.repository.TaskRepository.save(..))")
     public Object setDescriptionPrefixForAdmins(ProceedingJoinPoint joinPoint) throws Throwable {
@@ -28,8 +29,20 @@ public class SecurityAspect {
     }
 
     private void allowPrefixDescriptionForAdmins(final Task task) {
-        if(task.getOwner().getRoles().contains(Role.ROLE_ADMIN) || !task.getDescription().startsWith("[Internal Use]")) {
-            task.setDescription("[Internal Use] " + task.getDescription());
+        task.setDescription(prefixDescription(task.getDescription(), task.getOwner().getRoles().contains(Role.ROLE_ADMIN)));
+    }
+
+    /**
+     * Description rule applied on {@code TaskRepository.save}, exposed for the write paths that
+     * update tasks with a single statement and never go through {@code save}.
+     */
+    public static String prefixDescription(final String description, final boolean ownerIsAdmin) {
+        if (description == null) {
+            return null;
+        }
+        if(ownerIsAdmin || !description.startsWith(INTERNAL_USE_PREFIX)) {
+            return INTERNAL_USE_PREFIX + " " + description;
         }
+        return description;
     }
 }
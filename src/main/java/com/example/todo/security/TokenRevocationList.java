@@ -0,0 +1,108 @@
+package com.example.todo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory set of revoked token ids. A Bloom filter sits in front of the exact set so
+ * that the check done for every authenticated request is a handful of bit lookups; only
+ * filter hits fall through to the map. Entries are dropped once the token they revoke has
+ * expired, and the filter is rebuilt from what is left.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(@Value("${security.jwt.revocation.expected-insertions:100000}") int expectedInsertions,
+                               @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Revokes the token until {@code expiresAt}.
+     *
+     * @return {@code false} if the token had already been revoked
+     */
+    public synchronized boolean revoke(String tokenId, long expiresAt) {
+        if (revoked.putIfAbsent(tokenId, expiresAt) != null) {
+            return false;
+        }
+        filter.add(tokenId);
+        return true;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.prune-interval:60000}")
+    public synchronized void prune() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final int bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.words = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                int index = bit >>> 6;
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a over the UTF-16 code units, split into two 32-bit halves for double hashing.
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
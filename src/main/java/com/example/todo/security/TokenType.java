@@ -0,0 +1,6 @@
+package com.example.todo.security;
+
+public enum TokenType {
+    ACCESS,
+    REFRESH
+}
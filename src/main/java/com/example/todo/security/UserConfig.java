@@ -1,22 +1,67 @@
 package com.example.todo.security;
 
-import com.example.todo.repository.UserRepository;
-import com.example.todo.service.UserService;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * @author PAQUIN Pierre
  */
 @Configuration
 public class UserConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(UserConfig.class);
+    private static final String BCRYPT = "bcrypt";
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    /**
+     * BCrypt encoder whose work factor is either fixed by {@code security.password-hashing.strength}
+     * or calibrated at startup against {@code security.password-hashing.target-latency}.
+     * <p>
+     * New hashes are stored with a {@code {bcrypt}} prefix. Hashes without the prefix (such as the
+     * ones seeded by data.sql) or with a lower cost are reported by {@code upgradeEncoding}, and the
+     * authentication provider rehashes them through {@code UserService.updatePassword} after a
+     * successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password-hashing.strength:0}") int strength,
+                                           @Value("${security.password-hashing.target-latency:250ms}") Duration targetLatency,
+                                           @Value("${security.password-hashing.min-strength:10}") int minStrength,
+                                           @Value("${security.password-hashing.max-strength:16}") int maxStrength) {
+        int workFactor = strength > 0 ? strength : calibrate(targetLatency, minStrength, maxStrength);
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(workFactor);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
+    private static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        long targetNanos = targetLatency.toNanos();
+        int strength = minStrength;
+        timeEncode(strength); // warm-up
+        long elapsed = timeEncode(strength);
+        // Each additional round doubles the cost, so only step up while the next one still fits.
+        while (strength < maxStrength && elapsed * 2 <= targetNanos) {
+            strength++;
+            elapsed = timeEncode(strength);
+        }
+        log.info("Calibrated BCrypt strength to {} ({} ms per hash, target {} ms)",
+                strength, Duration.ofNanos(elapsed).toMillis(), targetLatency.toMillis());
+        return strength;
+    }
+
+    private static long timeEncode(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
 }
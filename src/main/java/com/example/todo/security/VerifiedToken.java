@@ -0,0 +1,21 @@
+package com.example.todo.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Claims of a bearer token whose signature and expiry have already been checked.
+ * Instances are immutable and shared between requests through the verified-token cache.
+ */
+@Getter
+@RequiredArgsConstructor
+public class VerifiedToken {
+    private final String id;
+    private final TokenType type;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    private final long expiresAt;
+}
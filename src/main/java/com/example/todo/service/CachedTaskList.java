@@ -0,0 +1,46 @@
+package com.example.todo.service;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable task list held by {@link TaskListCache}, which also keeps its JSON encoding once it has
+ * been written, so that repeated reads of an unchanged list skip Jackson entirely.
+ */
+public final class CachedTaskList extends AbstractList<TaskDTO> implements RandomAccess {
+
+    private final List<TaskDTO> tasks;
+    private volatile byte[] json;
+
+    public CachedTaskList(List<TaskDTO> tasks) {
+        this.tasks = List.copyOf(tasks);
+    }
+
+    @Override
+    public TaskDTO get(int index) {
+        return tasks.get(index);
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * The list encoded by {@code objectMapper}, computed on first use. Two concurrent first calls
+     * may both encode it; either result is kept.
+     */
+    public byte[] toJson(ObjectMapper objectMapper) throws JsonProcessingException {
+        byte[] encoded = json;
+        if (encoded == null) {
+            encoded = objectMapper.writeValueAsBytes(tasks);
+            json = encoded;
+        }
+        return encoded;
+    }
+}
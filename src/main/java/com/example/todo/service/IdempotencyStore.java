@@ -0,0 +1,105 @@
+package com.example.todo.service;
+
+import com.example.todo.exception.BadRequestException;
+import com.example.todo.exception.ConflictException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of mutating requests sent with an {@code Idempotency-Key}, so that a
+ * retried request gets the original response instead of running the write again. Keys are scoped
+ * to the user, kept for {@code ttl} and bounded in number. A retry that arrives while the original
+ * is still running waits for it. Requests that fail with an exception are not remembered and can
+ * be retried with the same key.
+ */
+@Component
+public class IdempotencyStore {
+
+    /** Set on responses that were replayed from the store. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> cache;
+
+    public IdempotencyStore(@Value("${todo.idempotency.max-entries:100000}") long maxEntries,
+                            @Value("${todo.idempotency.ttl:24h}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+    }
+
+    /**
+     * Runs {@code action} once per user and key. {@code request} identifies what was asked for,
+     * e.g. the path and body; reusing a key for a different request is a conflict. Without a key
+     * the action just runs.
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends ResponseEntity<?>> R execute(String username, String key, Object request, Supplier<R> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Entry entry = new Entry(request);
+        Entry existing = cache.asMap().putIfAbsent(username + '\n' + key, entry);
+        if (existing != null) {
+            if (!Objects.equals(existing.request, request)) {
+                throw new ConflictException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            return (R) replay(existing);
+        }
+        try {
+            R response = action.get();
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(username + '\n' + key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static ResponseEntity<?> replay(Entry entry) {
+        ResponseEntity<?> response;
+        try {
+            response = entry.response.join();
+        } catch (CompletionException e) {
+            // The original request failed; whoever waited on it fails the same way.
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static final class Entry {
+        private final Object request;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Entry(Object request) {
+            this.request = request;
+        }
+    }
+}
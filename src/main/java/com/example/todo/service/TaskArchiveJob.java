@@ -0,0 +1,226 @@
+package com.example.todo.service;
+
+import com.example.todo.model.dto.TaskArchiveStatus;
+import com.example.todo.model.entity.TaskTombstone;
+import com.example.todo.model.event.TaskChangedEvent;
+import com.example.todo.repository.TaskArchiveRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.TaskTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Moves done tasks that haven't changed for a while from {@code task} to {@code task_archive}.
+ * Each chunk is its own short transaction that takes the owners' version rows first, like every
+ * task writer, so a user is never blocked for longer than one chunk. Archived tasks leave
+ * tombstones and {@link TaskChangedEvent}s behind, exactly like deleted ones.
+ * The job runs on its own thread, one run at a time, started by an admin or by the schedule.
+ */
+@Component
+public class TaskArchiveJob {
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiveJob.class);
+
+    private final TaskRepository taskRepo;
+    private final TaskArchiveRepository taskArchiveRepo;
+    private final TaskTombstoneRepository taskTombstoneRepo;
+    private final TaskVersionService taskVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultOlderThan;
+    private final Counter archivedCounter;
+    private final ExecutorService executor;
+
+    private TaskArchiveStatus.State state = TaskArchiveStatus.State.IDLE;
+    private Instant cutoff;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long archivedTasks;
+    private long chunks;
+    private String lastError;
+    private volatile int chunkSize;
+    private volatile long pauseMillis;
+
+    public TaskArchiveJob(TaskRepository taskRepo,
+                          TaskArchiveRepository taskArchiveRepo,
+                          TaskTombstoneRepository taskTombstoneRepo,
+                          TaskVersionService taskVersionService,
+                          ApplicationEventPublisher eventPublisher,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${todo.tasks.archive.older-than:30d}") Duration defaultOlderThan,
+                          @Value("${todo.tasks.archive.chunk-size:500}") int chunkSize,
+                          @Value("${todo.tasks.archive.pause:200ms}") Duration pause,
+                          MeterRegistry meterRegistry) {
+        this.taskRepo = taskRepo;
+        this.taskArchiveRepo = taskArchiveRepo;
+        this.taskTombstoneRepo = taskTombstoneRepo;
+        this.taskVersionService = taskVersionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultOlderThan = defaultOlderThan;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pause.toMillis();
+        this.archivedCounter = Counter.builder("tasks.archived")
+                .description("Done tasks moved to the archive")
+                .register(meterRegistry);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-archive-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @Scheduled(cron = "${todo.tasks.archive.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        if (!start(null)) {
+            log.info("Skipping the scheduled task archiving, a run is still in progress");
+        }
+    }
+
+    /**
+     * Starts archiving the done tasks not changed for {@code olderThan}, or for the configured
+     * default when {@code null}.
+     *
+     * @return {@code false} if a run is already in progress
+     */
+    public synchronized boolean start(Duration olderThan) {
+        if (state != TaskArchiveStatus.State.IDLE) {
+            return false;
+        }
+        state = TaskArchiveStatus.State.RUNNING;
+        cutoff = Instant.now().minus(olderThan == null ? defaultOlderThan : olderThan);
+        startedAt = Instant.now();
+        finishedAt = null;
+        archivedTasks = 0;
+        chunks = 0;
+        lastError = null;
+        Instant runCutoff = cutoff;
+        executor.execute(() -> run(runCutoff));
+        return true;
+    }
+
+    /**
+     * Stops the current run after the chunk in progress.
+     */
+    public synchronized void cancel() {
+        if (state == TaskArchiveStatus.State.RUNNING) {
+            state = TaskArchiveStatus.State.CANCELLING;
+        }
+    }
+
+    /**
+     * Changes the chunk size and the pause between chunks, also for a run in progress.
+     */
+    public void throttle(Integer chunkSize, Duration pause) {
+        if (chunkSize != null) {
+            this.chunkSize = Math.max(1, chunkSize);
+        }
+        if (pause != null) {
+            this.pauseMillis = Math.max(0, pause.toMillis());
+        }
+    }
+
+    public synchronized TaskArchiveStatus getStatus() {
+        return new TaskArchiveStatus(state, cutoff, startedAt, finishedAt, archivedTasks, chunks, lastError,
+                chunkSize, pauseMillis);
+    }
+
+    private void run(Instant cutoff) {
+        try {
+            while (isRunning()) {
+                Integer archived = transactionTemplate.execute(status -> archiveChunk(cutoff, chunkSize));
+                if (archived == null || archived < 0) {
+                    break;
+                }
+                recordChunk(archived);
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Task archiving failed", e);
+            synchronized (this) {
+                lastError = e.getMessage();
+            }
+        } finally {
+            synchronized (this) {
+                state = TaskArchiveStatus.State.IDLE;
+                finishedAt = Instant.now();
+            }
+        }
+    }
+
+    /**
+     * @return the number of archived tasks, -1 when there was nothing left to archive
+     */
+    private int archiveChunk(Instant cutoff, int size) {
+        List<TaskRepository.ArchiveCandidateRow> candidates =
+                taskRepo.findArchiveCandidates(cutoff, PageRequest.of(0, size));
+        if (candidates.isEmpty()) {
+            return -1;
+        }
+        // Same lock order as the task writers: the owners' version rows, in a fixed order, then the tasks.
+        candidates.stream()
+                .map(TaskRepository.ArchiveCandidateRow::getOwnerUsername)
+                .collect(Collectors.toCollection(TreeSet::new))
+                .forEach(taskVersionService::lock);
+
+        // Tasks changed since the first query are left alone, and so are the versions of owners left with none.
+        List<TaskRepository.ArchiveCandidateRow> rows = taskRepo.findArchiveCandidatesByIds(
+                candidates.stream().map(TaskRepository.ArchiveCandidateRow::getId).collect(Collectors.toList()), cutoff);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> versions = new TreeMap<>();
+        rows.forEach(row -> versions.computeIfAbsent(row.getOwnerUsername(), taskVersionService::increment));
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<TaskTombstone> tombstones = new ArrayList<>(rows.size());
+        for (TaskRepository.ArchiveCandidateRow row : rows) {
+            ids.add(row.getId());
+            tombstones.add(new TaskTombstone(row.getId(), row.getOwnerId(), versions.get(row.getOwnerUsername())));
+        }
+        taskArchiveRepo.copyFromTasks(ids);
+        taskTombstoneRepo.saveAll(tombstones);
+        taskRepo.deleteByIds(ids);
+        for (TaskRepository.ArchiveCandidateRow row : rows) {
+            String username = row.getOwnerUsername();
+            eventPublisher.publishEvent(new TaskChangedEvent(TaskChangedEvent.Type.DELETED, username, row.getId(),
+                    versions.get(username), null));
+        }
+        return rows.size();
+    }
+
+    private synchronized boolean isRunning() {
+        return state == TaskArchiveStatus.State.RUNNING;
+    }
+
+    private synchronized void recordChunk(int archived) {
+        archivedTasks += archived;
+        chunks++;
+        archivedCounter.increment(archived);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.todo.service;
+
+import com.example.todo.exception.ServiceUnavailableException;
+import com.example.todo.model.dto.TaskDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in group commit for /tasks/create, enabled with {@code todo.tasks.group-commit.enabled}.
+ * Creates are queued to a single writer thread that runs them through {@link TaskService#create}
+ * in one transaction per batch, so a burst of creates costs one commit instead of one per task.
+ * A batch closes after {@code max-batch-size} creates or {@code max-delay} after its first one,
+ * and every caller gets its task back once the batch has committed. Ownership, the admin-only
+ * {@code done} rule and the description rule still apply per task, since each one goes through
+ * {@code TaskService.create} and {@code TaskRepository.save}.
+ * <p>
+ * If a batch fails, it is rolled back and every create is retried in a transaction of its own,
+ * so only the failing ones fail. When the queue is full, or a create is still queued after
+ * {@code timeout}, callers get a 503.
+ */
+@Component
+public class TaskCreateBatcher {
+    private static final Logger log = LoggerFactory.getLogger(TaskCreateBatcher.class);
+
+    private final TaskService taskService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<PendingCreate> queue;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public TaskCreateBatcher(TaskService taskService,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${todo.tasks.group-commit.enabled:false}") boolean enabled,
+                             @Value("${todo.tasks.group-commit.max-batch-size:100}") int maxBatchSize,
+                             @Value("${todo.tasks.group-commit.max-delay:5ms}") Duration maxDelay,
+                             @Value("${todo.tasks.group-commit.queue-capacity:10000}") int queueCapacity,
+                             @Value("${todo.tasks.group-commit.timeout:10s}") Duration timeout,
+                             @Value("${todo.tasks.group-commit.retry-after-seconds:1}") long retryAfterSeconds,
+                             MeterRegistry meterRegistry) {
+        this.taskService = taskService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("tasks.create.batch.size")
+                .description("Creates committed together by the group-commit writer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tasks.create.batch.rejected")
+                .description("Creates rejected because the group-commit queue was full")
+                .register(meterRegistry);
+        if (enabled) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-create-batcher-");
+            threadFactory.setDaemon(true);
+            this.writer = threadFactory.newThread(this::run);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Queues the create and waits until the batch it ends up in has committed. A create still
+     * queued after {@code timeout} is withdrawn and answered with a 503, so retrying it is safe.
+     * Once the writer has taken it, the outcome is only known when its batch ends, so the caller
+     * keeps waiting for that instead.
+     */
+    public TaskDTO create(TaskDTO taskDTO, String username) {
+        if (!enabled) {
+            return taskService.create(taskDTO, username);
+        }
+        PendingCreate pending = new PendingCreate(taskDTO, username);
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many task creations, please retry later", retryAfterSeconds);
+        }
+        if (!running && queue.remove(pending)) {
+            // Shut down while queueing; the writer may already have drained the queue.
+            pending.reject();
+        }
+        try {
+            return pending.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new ServiceUnavailableException("Task creation timed out, please retry later", retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(pending)) {
+                throw new ServiceUnavailableException("Task creation was interrupted, please retry later", retryAfterSeconds);
+            }
+        }
+        // Taken by the writer: its batch commits or fails as a whole, and completes the result either way.
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running) {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingCreate next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Whatever stopped the writer, stop queueing behind it.
+            running = false;
+            batch.forEach(PendingCreate::reject);
+            List<PendingCreate> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.forEach(PendingCreate::reject);
+        }
+    }
+
+    private void commit(List<PendingCreate> batch) {
+        batchSizes.record(batch.size());
+        // Same lock order as the archive job: owners' version rows sorted by username.
+        List<PendingCreate> ordered = new ArrayList<>(batch);
+        ordered.sort(Comparator.comparing(pending -> pending.username));
+        List<TaskDTO> created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                List<TaskDTO> tasks = new ArrayList<>(ordered.size());
+                for (PendingCreate pending : ordered) {
+                    tasks.add(taskService.create(pending.taskDTO, pending.username));
+                }
+                return tasks;
+            });
+        } catch (RuntimeException e) {
+            log.debug("Group commit of {} task creations failed, retrying them one by one", ordered.size(), e);
+            ordered.forEach(this::commitAlone);
+            return;
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).result.complete(created.get(i));
+        }
+    }
+
+    private void commitAlone(PendingCreate pending) {
+        try {
+            pending.result.complete(taskService.create(pending.taskDTO, pending.username));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private final class PendingCreate {
+        private final TaskDTO taskDTO;
+        private final String username;
+        private final CompletableFuture<TaskDTO> result = new CompletableFuture<>();
+
+        private PendingCreate(TaskDTO taskDTO, String username) {
+            this.taskDTO = taskDTO;
+            this.username = username;
+        }
+
+        private void reject() {
+            result.completeExceptionally(
+                    new ServiceUnavailableException("Task creation is shutting down, please retry later", retryAfterSeconds));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.todo.service;
+
+import com.example.todo.model.dto.TaskChangeDTO;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.event.TaskChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed task changes to the user's open /tasks/stream connections as Server-Sent Events.
+ * A new connection first gets a {@code snapshot} event with every task of the user, then one
+ * {@code created}, {@code updated} or {@code deleted} event per change, each with the task version
+ * as its id. Changes already covered by the snapshot are skipped.
+ * <p>
+ * Connections are async requests, so an idle one holds no thread. Every connection has a bounded
+ * buffer drained by a small shared pool; a client that falls {@code buffer-size} events behind is
+ * disconnected and has to reconnect, which gets it a fresh snapshot.
+ */
+@Component
+public class TaskEventStream {
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final TaskService taskService;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter evictedCounter;
+    private final ExecutorService executor;
+
+    public TaskEventStream(TaskService taskService,
+                           @Value("${todo.tasks.stream.timeout:30m}") Duration timeout,
+                           @Value("${todo.tasks.stream.buffer-size:256}") int bufferSize,
+                           @Value("${todo.tasks.stream.threads:4}") int threads,
+                           MeterRegistry meterRegistry) {
+        this.taskService = taskService;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        Gauge.builder("tasks.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open /tasks/stream connections")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("tasks.stream.evicted")
+                .description("/tasks/stream connections closed because the client fell behind")
+                .register(meterRegistry);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-stream-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Opens a stream of the user's task changes, starting with a snapshot of all their tasks.
+     */
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(username, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // Registered before the snapshot is read, so no change committed in between is missed.
+        subscribers.computeIfAbsent(username, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        long version;
+        List<TaskDTO> tasks;
+        try {
+            version = taskService.getVersion(username);
+            tasks = taskService.getTaskSnapshot(username, version);
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        subscriber.start(SseEmitter.event().name("snapshot").id(String.valueOf(version)).data(tasks), version);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.getUsername());
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            if (subscriber.queue.offer(event)) {
+                schedule(subscriber);
+            } else {
+                evictedCounter.increment();
+                close(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment on every open connection, so proxies keep them open and dead clients are noticed.
+     */
+    @Scheduled(fixedDelayString = "${todo.tasks.stream.heartbeat-interval:30000}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            subscriber.heartbeat = true;
+            schedule(subscriber);
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.started && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.snapshot != null) {
+                subscriber.emitter.send(subscriber.snapshot);
+                subscriber.snapshot = null;
+            }
+            // At most one buffer's worth per turn, so one busy user can't hold a thread for long.
+            for (int i = 0; i < bufferSize; i++) {
+                TaskChangedEvent event = subscriber.queue.poll();
+                if (event == null) {
+                    break;
+                }
+                if (event.getVersion() > subscriber.snapshotVersion) {
+                    subscriber.emitter.send(toSseEvent(event));
+                }
+            }
+            if (subscriber.heartbeat) {
+                subscriber.heartbeat = false;
+                subscriber.emitter.send(SseEmitter.event().comment(HEARTBEAT));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone or the emitter has completed.
+            close(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.queue.isEmpty() || subscriber.heartbeat) {
+            schedule(subscriber);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(TaskChangedEvent event) {
+        boolean deleted = event.getType() == TaskChangedEvent.Type.DELETED;
+        return SseEmitter.event()
+                .name(event.getType().name().toLowerCase(Locale.ROOT))
+                .id(String.valueOf(event.getVersion()))
+                .data(new TaskChangeDTO(event.getTaskId(), event.getVersion(), deleted, event.getTask()));
+    }
+
+    private void close(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.username, (username, userSubscribers) -> {
+            removed[0] = userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(this::close));
+    }
+
+    private static final class Subscriber {
+        private final String username;
+        private final SseEmitter emitter;
+        private final BlockingQueue<TaskChangedEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean started;
+        private volatile boolean heartbeat;
+        private volatile SseEmitter.SseEventBuilder snapshot;
+        private volatile long snapshotVersion;
+
+        private Subscriber(String username, SseEmitter emitter, int bufferSize) {
+            this.username = username;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void start(SseEmitter.SseEventBuilder snapshot, long snapshotVersion) {
+            this.snapshot = snapshot;
+            this.snapshotVersion = snapshotVersion;
+            this.started = true;
+        }
+    }
+}
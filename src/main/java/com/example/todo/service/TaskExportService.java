@@ -0,0 +1,53 @@
+package com.example.todo.service;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.entity.Task;
+import com.example.todo.model.mapper.TaskMapper;
+import com.example.todo.repository.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's tasks as newline-delimited JSON straight from a database cursor. Each entity
+ * is detached once written, so memory stays constant whatever the size of the account.
+ */
+@Service
+@AllArgsConstructor
+public class TaskExportService {
+    private static final int FLUSH_EVERY = 500;
+
+    private final TaskRepository taskRepo;
+    private final TaskMapper taskMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportTasks(String username, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TaskDTO.class);
+        OutputStream buffered = new BufferedOutputStream(out, 16 * 1024);
+        try (Stream<Task> tasks = taskRepo.streamByOwnerUsername(username)) {
+            Iterator<Task> iterator = tasks.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                Task task = iterator.next();
+                buffered.write(writer.writeValueAsBytes(taskMapper.taskToTaskDTO(task)));
+                buffered.write('\n');
+                entityManager.detach(task);
+                if (++written % FLUSH_EVERY == 0) {
+                    buffered.flush();
+                }
+            }
+        }
+        buffered.flush();
+    }
+}
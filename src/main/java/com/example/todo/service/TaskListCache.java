@@ -0,0 +1,149 @@
+package com.example.todo.service;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.event.TaskChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Per-user cache of the full task list served by /tasks/list. Entries are weighted by their
+ * number of tasks and evicted with Caffeine's W-TinyLFU policy, expire after a short TTL, and are
+ * invalidated once a transaction that changed one of the user's tasks has committed.
+ * Each entry remembers the task version read before it was loaded, so a reader that has already
+ * seen a newer version never gets an older list, even before the invalidation has run.
+ * Cached lists are {@link CachedTaskList}s, which also keep their JSON encoding once written.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics with {@code cache=tasks.list}.
+ * <p>
+ * Concurrent misses for the same user share one load: the first caller runs it and the others
+ * wait for its result, as long as it was started at a version at least as recent as theirs.
+ * Loads are tracked per user, so callers for different users never wait on each other. The
+ * {@code tasks.list.loads} counter tells the two apart with {@code role=leader|follower}, and
+ * {@code tasks.list.loads.coalesced.ratio} is the share of callers that didn't hit the database.
+ */
+@Component
+public class TaskListCache {
+
+    private final Cache<String, Entry> cache;
+    private final ConcurrentMap<String, Load> loads = new ConcurrentHashMap<>();
+    private final Counter leaderCounter;
+    private final Counter followerCounter;
+
+    public TaskListCache(@Value("${todo.tasks.list-cache.max-tasks:1000000}") long maxTasks,
+                         @Value("${todo.tasks.list-cache.ttl:30s}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .weigher((String username, Entry entry) -> entry.tasks.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks.list");
+        this.leaderCounter = Counter.builder("tasks.list.loads")
+                .tag("role", "leader")
+                .description("Task list loads that queried the database")
+                .register(meterRegistry);
+        this.followerCounter = Counter.builder("tasks.list.loads")
+                .tag("role", "follower")
+                .description("Task list loads that waited for a concurrent load of the same user")
+                .register(meterRegistry);
+        Gauge.builder("tasks.list.loads.coalesced.ratio", this, TaskListCache::coalescedRatio)
+                .description("Share of task list loads served by a concurrent load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached list if it was loaded at {@code version} or later, otherwise loads and caches
+     * it, or waits for a load of the same user already running at {@code version} or later.
+     * {@code version} must have been read before calling, so that the loaded list is at least that recent.
+     */
+    public List<TaskDTO> get(String username, long version, Function<String, List<TaskDTO>> loader) {
+        Entry entry = cache.getIfPresent(username);
+        if (entry != null && entry.version >= version) {
+            return entry.tasks;
+        }
+        Load started = new Load(version);
+        Load load = loads.compute(username,
+                (key, running) -> running != null && running.version >= version ? running : started);
+        if (load != started) {
+            followerCounter.increment();
+            return join(load);
+        }
+        leaderCounter.increment();
+        try {
+            // A load may have finished between the cache lookup and taking the lead.
+            entry = cache.getIfPresent(username);
+            CachedTaskList tasks = entry != null && entry.version >= version
+                    ? entry.tasks : new CachedTaskList(loader.apply(username));
+            cache.asMap().merge(username, new Entry(version, tasks),
+                    (cached, loaded) -> cached.version >= loaded.version ? cached : loaded);
+            load.tasks.complete(tasks);
+            return tasks;
+        } catch (RuntimeException | Error e) {
+            load.tasks.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(username, load);
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    private static List<TaskDTO> join(Load load) {
+        try {
+            return load.tasks.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private double coalescedRatio() {
+        double followers = followerCounter.count();
+        double total = leaderCounter.count() + followers;
+        return total == 0 ? 0 : followers / total;
+    }
+
+    private static final class Load {
+        private final long version;
+        private final CompletableFuture<List<TaskDTO>> tasks = new CompletableFuture<>();
+
+        private Load(long version) {
+            this.version = version;
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final CachedTaskList tasks;
+
+        private Entry(long version, CachedTaskList tasks) {
+            this.version = version;
+            this.tasks = tasks;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.todo.service;
+
+import com.example.todo.exception.BadRequestException;
+import com.example.todo.exception.ServiceUnavailableException;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.event.TaskChangedEvent;
+import com.example.todo.repository.TaskRepository;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process full-text index over task titles and descriptions, partitioned per owner so that a
+ * search only ever looks at the caller's own postings. It is built from the database once the
+ * application is ready and then kept in sync from committed {@link TaskChangedEvent}s.
+ * Query words match indexed words by prefix, every query word has to match, and results are
+ * ranked by tf-idf with title matches counting double and exact matches above completions.
+ */
+@Component
+public class TaskSearchIndex {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final long RETRY_AFTER_SECONDS = 5;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final TaskRepository taskRepo;
+    private final Map<String, OwnerIndex> owners = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public TaskSearchIndex(TaskRepository taskRepo) {
+        this.taskRepo = taskRepo;
+    }
+
+    /**
+     * Loads every task. Changes committed while this runs are applied as they come, and the
+     * versions stored with each task keep the older snapshot rows from overwriting them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        try (Stream<TaskRepository.SearchRow> rows = taskRepo.streamAllForSearchIndex()) {
+            rows.forEach(row -> owner(row.getOwnerUsername()).put(
+                    new TaskDTO(row.getId(), row.getTitle(), row.getDescription(), row.isDone()), row.getModSeq()));
+        }
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        OwnerIndex index = owner(event.getUsername());
+        if (event.getType() == TaskChangedEvent.Type.DELETED) {
+            index.remove(event.getTaskId());
+        } else {
+            index.put(event.getTask(), event.getVersion());
+        }
+    }
+
+    /**
+     * Best matches for {@code query} among the user's tasks, at most {@code limit} of them.
+     */
+    public List<TaskDTO> search(String username, String query, Integer limit) {
+        if (!ready) {
+            throw new ServiceUnavailableException("The search index is still being built", RETRY_AFTER_SECONDS);
+        }
+        List<String> terms = tokenize(query).stream().distinct().collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            throw new BadRequestException("The search query must contain at least one word");
+        }
+        OwnerIndex index = owners.get(username);
+        if (index == null) {
+            return List.of();
+        }
+        return index.search(terms, limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private OwnerIndex owner(String username) {
+        return owners.computeIfAbsent(username, key -> new OwnerIndex());
+    }
+
+    private static final class Document {
+        private final TaskDTO task;
+        private final long version;
+        private final Map<String, Integer> weights;
+
+        private Document(TaskDTO task, long version) {
+            this.task = task;
+            this.version = version;
+            this.weights = new HashMap<>();
+            tokenize(task.getTitle()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+            tokenize(task.getDescription()).forEach(term -> weights.merge(term, 1, Integer::sum));
+        }
+    }
+
+    private static final class OwnerIndex {
+        private static final int MAX_REMOVED = 10_000;
+
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        // Task ids are never reused, so remembering recent deletions is enough to ignore events
+        // for those tasks that arrive late.
+        private final Map<Long, Boolean> removed = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > MAX_REMOVED;
+            }
+        };
+
+        synchronized void put(TaskDTO task, long version) {
+            if (removed.containsKey(task.getId())) {
+                return;
+            }
+            Document existing = documents.get(task.getId());
+            if (existing != null) {
+                if (existing.version > version) {
+                    return;
+                }
+                unindex(existing);
+            }
+            Document document = new Document(
+                    new TaskDTO(task.getId(), task.getTitle(), task.getDescription(), task.isDone()), version);
+            documents.put(task.getId(), document);
+            document.weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(task.getId(), weight));
+        }
+
+        synchronized void remove(Long id) {
+            removed.put(id, Boolean.TRUE);
+            Document existing = documents.remove(id);
+            if (existing != null) {
+                unindex(existing);
+            }
+        }
+
+        synchronized List<TaskDTO> search(List<String> terms, int limit) {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Map<Long, Integer>> posting
+                        : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                    double idf = Math.log(1 + (double) documents.size() / posting.getValue().size());
+                    double boost = posting.getKey().length() == term.length() ? 1.0 : 0.5;
+                    posting.getValue().forEach((id, weight) -> termScores.merge(id, weight * idf * boost, Double::sum));
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // Keep the best `limit` hits in a min-heap instead of sorting every match.
+            Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, ranking);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                best.add(entry);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<TaskDTO> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                results.add(documents.get(best.poll().getKey()).task);
+            }
+            Collections.reverse(results);
+            return results;
+        }
+
+        private void unindex(Document document) {
+            Long id = document.task.getId();
+            for (String term : document.weights.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
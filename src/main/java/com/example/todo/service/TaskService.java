@@ -1,37 +1,151 @@
 package com.example.todo.service;
 
+import com.example.todo.exception.BadRequestException;
 import com.example.todo.exception.ForbiddenException;
 import com.example.todo.exception.NotFoundException;
 import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.dto.TaskField;
+import com.example.todo.model.dto.TaskOperation;
+import com.example.todo.model.dto.TaskOperationResult;
 import com.example.todo.model.entity.Role;
+import com.example.todo.model.event.TaskChangedEvent;
 import com.example.todo.model.entity.Task;
+import com.example.todo.model.entity.TaskTombstone;
 import com.example.todo.model.entity.User;
 import com.example.todo.model.mapper.TaskMapper;
+import com.example.todo.repository.TaskArchiveRepository;
 import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.TaskTombstoneRepository;
+import com.example.todo.security.SecurityAspect;
 import lombok.AllArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
 @Transactional
 public class TaskService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 10_000;
+
     private final TaskRepository taskRepo;
+    private final TaskTombstoneRepository taskTombstoneRepo;
+    private final TaskArchiveRepository taskArchiveRepo;
     private final UserService userService;
     private final TaskMapper taskMapper;
+    private final TaskListCache taskListCache;
+    private final TaskVersionService taskVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Current version of the user's tasks. It changes with every committed task write, so it can
+     * be used as the ETag of any read of those tasks.
+     */
+    @Transactional(readOnly = true)
+    public long getVersion(String username) {
+        return taskVersionService.currentVersion(username);
+    }
 
+    @Transactional(readOnly = true)
     public List<TaskDTO> getTasksForUser(String username) {
-        List<Task> taskList = taskRepo.findByOwnerUsername(username);
-        if (taskList == null || taskList.isEmpty()) {
+        return getTasksForUser(username, getVersion(username));
+    }
+
+    /**
+     * Every task of the user, at least as recent as {@code version}. Runs without a transaction of
+     * its own, so callers waiting for a concurrent load of the same list don't hold a connection;
+     * the load itself runs in the repository's transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskDTO> getTasksForUser(String username, long version) {
+        List<TaskDTO> tasks = getTaskSnapshot(username, version);
+        if (tasks.isEmpty()) {
             throw new NotFoundException("Can't find any tasks for the given username" + username);
         }
-        return taskList.stream().map(taskMapper::taskToTaskDTO).collect(Collectors.toList());
+        return tasks;
+    }
+
+    /**
+     * Same as {@link #getTasksForUser(String, long)}, but a user without tasks gets an empty list
+     * instead of a {@link NotFoundException}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TaskDTO> getTaskSnapshot(String username, long version) {
+        return taskListCache.get(username, version, this::loadTasksForUser);
+    }
+
+    @Transactional(readOnly = true)
+    public TaskDTO getTask(Long id, String username) {
+        Task task = taskRepo.findById(id)
+                .orElseThrow(
+                        () -> new NotFoundException("Can't find the task with id " + id)
+                );
+        if (!task.getOwner().getUsername().equals(username)) {
+            throw new ForbiddenException("You do not have permission to read this task, only the owner can read this task");
+        }
+        return taskMapper.taskToTaskDTO(task);
+    }
+
+    private List<TaskDTO> loadTasksForUser(String username) {
+        List<TaskDTO> taskList = taskRepo.findDTOsByOwnerUsername(username);
+        return taskList == null ? List.of() : List.copyOf(taskList);
+    }
+
+    /**
+     * Keyset page of the user's tasks with an id greater than {@code afterId}, optionally filtered
+     * on {@code done} and on a title prefix. The page size is capped at {@link #MAX_PAGE_SIZE}.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getTaskPage(String username, Long afterId, Integer limit, Boolean done, String titlePrefix) {
+        int pageSize = resolvePageSize(limit);
+        String titlePattern = titlePrefix == null ? null : escapeLike(titlePrefix) + "%";
+        return taskRepo.findPageByOwnerUsername(username, afterId == null ? 0L : afterId, done, titlePattern,
+                PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Only the requested {@code fields} of the user's tasks, read with a projection of just those
+     * columns. Without {@code limit} every task is returned, otherwise a page like {@link #getTaskPage}.
+     *
+     * @throws NotFoundException without {@code limit} when the user has no tasks, like {@link #getTasksForUser}
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTaskFields(String username, Set<TaskField> fields, Long afterId,
+                                                   Integer limit, Boolean done, String titlePrefix) {
+        String titlePattern = titlePrefix == null ? null : escapeLike(titlePrefix) + "%";
+        List<Map<String, Object>> tasks = taskRepo.findFieldsByOwnerUsername(username, fields,
+                afterId == null ? 0L : afterId, done, titlePattern, limit == null ? null : resolvePageSize(limit));
+        if (limit == null && tasks.isEmpty()) {
+            throw new NotFoundException("Can't find any tasks for the given username" + username);
+        }
+        return tasks;
+    }
+
+    /**
+     * Keyset page of the user's archived tasks, see {@link TaskArchiveJob}. Same paging as
+     * {@link #getTaskPage}.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getArchivedTaskPage(String username, Long afterId, Integer limit) {
+        return taskArchiveRepo.findPageByOwnerUsername(username, afterId == null ? 0L : afterId,
+                PageRequest.of(0, resolvePageSize(limit)));
     }
 
     public TaskDTO create(TaskDTO taskDTO, String username) {
@@ -43,43 +157,214 @@ public class TaskService {
         if (taskDTO.isDone() && !hasAdminRole(owner)){
             task.setDone(false);
         }
+        long version = taskVersionService.increment(username);
+        task.setModSeq(version);
         Task savedTask = taskRepo.save(task);
-        return taskMapper.taskToTaskDTO(savedTask);
+        TaskDTO savedTaskDTO = taskMapper.taskToTaskDTO(savedTask);
+        publish(TaskChangedEvent.Type.CREATED, username, savedTask.getId(), version, savedTaskDTO);
+        return savedTaskDTO;
     }
 
+    /**
+     * Updates the task with one ownership-checked statement. The owner is the current user, so
+     * the admin check and the description rule use the caller's roles.
+     */
     public ResponseEntity<TaskDTO> update(Long id, TaskDTO taskDTO, String username) {
-        Task existing = taskRepo.findById(id)
-                .orElseThrow(
-                        () -> new NotFoundException("Can't find the task with id " + id)
-                );
+        boolean admin = isAdmin(username);
+
+        // done = true Admin, checked after the existence of the task so that a missing task still answers 404
+        if (taskDTO.isDone() && !admin) {
+            if (!taskRepo.existsById(id)) {
+                throw new NotFoundException("Can't find the task with id " + id);
+            }
+            throw new ForbiddenException("You don't have permission to update this task, only an admin can set done=true");
+        }
+        String description = SecurityAspect.prefixDescription(taskDTO.getDescription(), admin);
+        // The version is taken first so that writers of the same user always lock in the same order;
+        // the exceptions below roll it back.
+        long version = taskVersionService.increment(username);
+        if (taskRepo.updateOwned(id, username, taskDTO.getTitle(), description, taskDTO.isDone(), version) == 0) {
+            if (!taskRepo.existsById(id)) {
+                throw new NotFoundException("Can't find the task with id " + id);
+            }
+            throw new ForbiddenException("You do not have permission to update this task, only the owner can update this task");
+        }
+        TaskDTO updatedTask = new TaskDTO(id, taskDTO.getTitle(), description, taskDTO.isDone());
+        publish(TaskChangedEvent.Type.UPDATED, username, id, version, updatedTask);
+        return ResponseEntity.ok(updatedTask);
+    }
 
+    public ResponseEntity<?> delete(Long id, String username) {
+        // Same lock order as update. A refused delete throws, like update, so the increment is rolled back.
+        long version = taskVersionService.increment(username);
+        if (taskRepo.deleteOwned(id, username) == 0) {
+            if (!taskRepo.existsById(id)) {
+                throw new NotFoundException("Can't find the task with id " + id);
+            }
+            throw new ForbiddenException("You do not have permission to delete this task, only the owner can delete this task");
+        }
+        userService.findByUsername(username).ifPresent(owner ->
+                taskTombstoneRepo.save(new TaskTombstone(id, owner.getId(), version)));
+        publish(TaskChangedEvent.Type.DELETED, username, id, version, null);
+        return ResponseEntity.noContent().build();
+    }
+
+    public static int resolvePageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Applies a list of create, update and delete operations in a single transaction, with the
+     * same ownership and admin-only {@code done} rules as the single-task endpoints. A failing
+     * operation is reported in its result and does not stop the others.
+     */
+    public List<TaskOperationResult> applyBatch(List<TaskOperation> operations, String username) {
+        if (operations == null || operations.isEmpty()) {
+            return List.of();
+        }
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch can't contain more than " + MAX_BATCH_SIZE + " operations");
+        }
         User currentUser = userService.findByUsername(username)
                 .orElseThrow(
                         () -> new NotFoundException("Can't find the user with username " + username)
                 );
-        if (!existing.getOwner().getUsername().equals(username)) {
-            throw new ForbiddenException("You do not have permission to update this task, only the owner can update this task");
+        boolean admin = hasAdminRole(currentUser);
+        // Same lock order as the other writers, but the version only moves once an operation succeeds:
+        // a batch in which every operation fails changes nothing.
+        taskVersionService.lock(username);
+        BatchVersion version = new BatchVersion(username);
+
+        // Load every task targeted by an update or a delete with a single query.
+        List<Long> ids = operations.stream()
+                .filter(Objects::nonNull)
+                .map(TaskOperation::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Task> existingTasks = taskRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        List<TaskOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperation operation = operations.get(i);
+            TaskOperation.Type type = operation == null ? null : operation.getOp();
+            try {
+                results.add(applyOperation(i, operation, currentUser, admin, version, existingTasks));
+            } catch (BadRequestException e) {
+                results.add(new TaskOperationResult(i, type, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null));
+            } catch (NotFoundException e) {
+                results.add(new TaskOperationResult(i, type, HttpStatus.NOT_FOUND.value(), e.getMessage(), null));
+            } catch (ForbiddenException e) {
+                results.add(new TaskOperationResult(i, type, HttpStatus.FORBIDDEN.value(), e.getMessage(), null));
+            }
+        }
+        return results;
+    }
+
+    private TaskOperationResult applyOperation(int index, TaskOperation operation, User currentUser, boolean admin,
+                                               BatchVersion batchVersion, Map<Long, Task> existingTasks) {
+        if (operation == null || operation.getOp() == null) {
+            throw new BadRequestException("Missing operation type");
+        }
+        TaskDTO taskDTO = operation.getTask();
+        if (operation.getOp() != TaskOperation.Type.DELETE && taskDTO == null) {
+            throw new BadRequestException("Missing task for " + operation.getOp());
+        }
+        switch (operation.getOp()) {
+            case CREATE: {
+                Task task = taskMapper.taskDTOToTask(taskDTO);
+                task.setOwner(currentUser);
+                if (taskDTO.isDone() && !admin) {
+                    task.setDone(false);
+                }
+                long version = batchVersion.get();
+                task.setModSeq(version);
+                Task savedTask = taskRepo.save(task);
+                TaskDTO savedTaskDTO = taskMapper.taskToTaskDTO(savedTask);
+                publish(TaskChangedEvent.Type.CREATED, currentUser.getUsername(), savedTask.getId(), version, savedTaskDTO);
+                return new TaskOperationResult(index, operation.getOp(), HttpStatus.CREATED.value(), null, savedTaskDTO);
+            }
+            case UPDATE: {
+                Task existing = ownedTask(operation.getId(), currentUser.getUsername(), existingTasks);
+                if (taskDTO.isDone() && !admin) {
+                    throw new ForbiddenException("Only an admin can set done=true");
+                }
+                long version = batchVersion.get();
+                existing.setTitle(taskDTO.getTitle());
+                existing.setDescription(taskDTO.getDescription());
+                existing.setDone(taskDTO.isDone());
+                existing.setModSeq(version);
+                Task savedTask = taskRepo.save(existing);
+                TaskDTO savedTaskDTO = taskMapper.taskToTaskDTO(savedTask);
+                publish(TaskChangedEvent.Type.UPDATED, currentUser.getUsername(), savedTask.getId(), version, savedTaskDTO);
+                return new TaskOperationResult(index, operation.getOp(), HttpStatus.OK.value(), null, savedTaskDTO);
+            }
+            case DELETE: {
+                Task existing = ownedTask(operation.getId(), currentUser.getUsername(), existingTasks);
+                long version = batchVersion.get();
+                taskRepo.delete(existing);
+                taskTombstoneRepo.save(new TaskTombstone(existing.getId(), currentUser.getId(), version));
+                existingTasks.remove(existing.getId());
+                publish(TaskChangedEvent.Type.DELETED, currentUser.getUsername(), existing.getId(), version, null);
+                return new TaskOperationResult(index, operation.getOp(), HttpStatus.NO_CONTENT.value(), null, null);
+            }
+            default:
+                throw new BadRequestException("Unsupported operation " + operation.getOp());
         }
-        existing.setTitle(taskDTO.getTitle());
-        existing.setDescription(taskDTO.getDescription());
+    }
+
+    /**
+     * Version of a batch, incremented on its first successful operation: the whole batch commits as one change.
+     */
+    private final class BatchVersion {
+        private final String username;
+        private boolean incremented;
+        private long version;
 
-        // done = true Admin
-        if (taskDTO.isDone() && !hasAdminRole(currentUser)) {
-            throw new ForbiddenException("You don't have permission to update this task, only the owner can  can set done=true");
-        } else {
-        existing.setDone(taskDTO.isDone());
+        BatchVersion(String username) {
+            this.username = username;
         }
 
-        Task savedTask = taskRepo.save(existing);
-        return ResponseEntity.ok(taskMapper.taskToTaskDTO(savedTask));
+        long get() {
+            if (!incremented) {
+                version = taskVersionService.increment(username);
+                incremented = true;
+            }
+            return version;
+        }
     }
 
-    public ResponseEntity<?> delete(Long id, String username) {
-        Task existing = taskRepo.findById(id).orElseThrow();
-        if (!existing.getOwner().getUsername().equals(username))
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        taskRepo.delete(existing);
-        return ResponseEntity.noContent().build();
+    private void publish(TaskChangedEvent.Type type, String username, Long taskId, long version, TaskDTO task) {
+        eventPublisher.publishEvent(new TaskChangedEvent(type, username, taskId, version, task));
+    }
+
+    private Task ownedTask(Long id, String username, Map<Long, Task> existingTasks) {
+        if (id == null) {
+            throw new BadRequestException("Missing task id");
+        }
+        Task existing = existingTasks.get(id);
+        if (existing == null) {
+            throw new NotFoundException("Can't find the task with id " + id);
+        }
+        if (!existing.getOwner().getUsername().equals(username)) {
+            throw new ForbiddenException("You do not have permission to modify the task with id " + id);
+        }
+        return existing;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    // Roles of the authenticated caller come from the security context; fall back to the database otherwise.
+    private boolean isAdmin(String username) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && username.equals(authentication.getName())) {
+            return authentication.getAuthorities().stream()
+                    .anyMatch(authority -> Role.ROLE_ADMIN.name().equals(authority.getAuthority()));
+        }
+        return userService.findByUsername(username).map(this::hasAdminRole).orElse(false);
     }
 
     public boolean hasAdminRole(User user){
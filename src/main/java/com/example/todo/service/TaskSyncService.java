@@ -0,0 +1,85 @@
+package com.example.todo.service;
+
+import com.example.todo.model.dto.TaskChangeDTO;
+import com.example.todo.model.dto.TaskChangesDTO;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.entity.TaskTombstone;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.TaskTombstoneRepository;
+import lombok.AllArgsConstructor;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync for clients that keep a local copy of their tasks. Every task and tombstone carries
+ * the version of the owner's tasks it was last written with, and versions commit in order, so
+ * reading everything after a watermark returns each change exactly once.
+ */
+@AllArgsConstructor
+@Service
+@Transactional(readOnly = true)
+public class TaskSyncService {
+
+    private final TaskRepository taskRepo;
+    private final TaskTombstoneRepository taskTombstoneRepo;
+    private final TaskVersionService taskVersionService;
+
+    /**
+     * Changes after the {@code (since, afterId)} position, ordered by {@code (seq, id)}, at most
+     * {@code limit} of them (capped like /tasks/list pages).
+     */
+    public TaskChangesDTO getChanges(String username, long since, long afterId, Integer limit) {
+        int pageSize = TaskService.resolvePageSize(limit);
+        // Every change up to this version has committed, so the queries below see all of them. Both
+        // stop at it: a write committing between them must not show up in one and not the other.
+        long version = taskVersionService.currentVersion(username);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<TaskRepository.ChangeRow> tasks = taskRepo.findChangesByOwnerUsername(username, since, afterId, version, page);
+        List<TaskTombstone> tombstones = taskTombstoneRepo.findChangesByOwnerUsername(username, since, afterId, version, page);
+
+        List<TaskChangeDTO> changes = new ArrayList<>(Math.min(pageSize, tasks.size() + tombstones.size()));
+        int t = 0;
+        int d = 0;
+        while (changes.size() <= pageSize && (t < tasks.size() || d < tombstones.size())) {
+            if (d == tombstones.size() || (t < tasks.size() && before(tasks.get(t), tombstones.get(d)))) {
+                TaskRepository.ChangeRow task = tasks.get(t++);
+                changes.add(new TaskChangeDTO(task.getId(), task.getModSeq(), false,
+                        new TaskDTO(task.getId(), task.getTitle(), task.getDescription(), task.isDone())));
+            } else {
+                TaskTombstone tombstone = tombstones.get(d++);
+                changes.add(new TaskChangeDTO(tombstone.getTaskId(), tombstone.getModSeq(), true, null));
+            }
+        }
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        long nextSince = since;
+        long nextAfterId = afterId;
+        if (!changes.isEmpty()) {
+            TaskChangeDTO last = changes.get(changes.size() - 1);
+            nextSince = last.getSeq();
+            nextAfterId = last.getId();
+        }
+        // Only when both queries came back short has everything up to the version been returned.
+        boolean complete = !hasMore && tasks.size() <= pageSize && tombstones.size() <= pageSize;
+        if (complete && version > nextSince) {
+            nextSince = version;
+            nextAfterId = 0;
+        }
+        return new TaskChangesDTO(changes, nextSince, nextAfterId, hasMore);
+    }
+
+    private static boolean before(TaskRepository.ChangeRow task, TaskTombstone tombstone) {
+        if (task.getModSeq() != tombstone.getModSeq()) {
+            return task.getModSeq() < tombstone.getModSeq();
+        }
+        return task.getId() < tombstone.getTaskId();
+    }
+}
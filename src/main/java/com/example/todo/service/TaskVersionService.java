@@ -0,0 +1,54 @@
+package com.example.todo.service;
+
+import com.example.todo.repository.TaskVersionRepository;
+import lombok.AllArgsConstructor;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per-user change version of the tasks. The version only ever grows, and since the increment
+ * locks the user's version row until the writing transaction ends, versions are committed in order.
+ */
+@AllArgsConstructor
+@Service
+@Transactional
+public class TaskVersionService {
+
+    private final TaskVersionRepository taskVersionRepo;
+
+    /**
+     * @return the committed version of the user's tasks, 0 if they were never changed
+     */
+    public long currentVersion(String username) {
+        return taskVersionRepo.findVersionByUsername(username).orElse(0L);
+    }
+
+    /**
+     * Locks the version row as part of the caller's transaction, without changing it, for writers
+     * that only know after some checks whether they change anything. It is the same lock as
+     * {@link #increment(String)}, which can follow in the same transaction.
+     *
+     * @return the current version
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long lock(String username) {
+        return taskVersionRepo.lockByUsername(username)
+                .orElseThrow(() -> new IllegalStateException("No task version for user " + username))
+                .getVersion();
+    }
+
+    /**
+     * Increments the version as part of the caller's transaction. The row is created with the user.
+     *
+     * @return the new version
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long increment(String username) {
+        if (taskVersionRepo.increment(username) == 0) {
+            throw new IllegalStateException("No task version for user " + username);
+        }
+        return currentVersion(username);
+    }
+}
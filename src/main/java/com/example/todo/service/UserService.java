@@ -1,16 +1,22 @@
 package com.example.todo.service;
 
 import com.example.todo.model.entity.Role;
+import com.example.todo.model.entity.TaskVersion;
 import com.example.todo.model.entity.User;
+import com.example.todo.model.event.UserChangedEvent;
+import com.example.todo.repository.TaskVersionRepository;
 import com.example.todo.repository.UserRepository;
 import lombok.AllArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.Set;
@@ -18,11 +24,18 @@ import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TaskVersionRepository taskVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Creates the user together with the version row of their tasks, so that task writes only ever
+     * have to update it.
+     */
+    @Transactional
     public void register(String username, String rawPassword) {
         if (userRepository.findByUsername(username).isPresent()) {
             throw new RuntimeException("User already exists");
@@ -31,7 +44,10 @@ public class UserService implements UserDetailsService {
         user.setUsername(username);
         user.setPassword(passwordEncoder.encode(rawPassword));
         user.setRoles(Set.of(Role.ROLE_USER));
-        userRepository.save(user);
+        User saved = userRepository.save(user);
+        TaskVersion taskVersion = new TaskVersion();
+        taskVersion.setOwnerId(saved.getId());
+        taskVersionRepository.save(taskVersion);
     }
 
     public Optional<User> findByUsername(String username) {
@@ -47,4 +63,19 @@ public class UserService implements UserDetailsService {
                 user.getRoles().stream().map(r -> new SimpleGrantedAuthority(r.name())).collect(Collectors.toList())
         );
     }
+
+    /**
+     * Stores a password that was rehashed with the current work factor after a successful login.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
 }
\ No newline at end of file
@@ -3,4 +3,7 @@ INSERT INTO user (id, username, password)
 VALUES (1, 'testuser', '$2a$10$nvjOlrUKeAhrLVMahMffwuBmWwPgh58suytbe5S6n.XKR1hk2d3JK'); -- password = test123
 
 -- Insertion du rôle (via table des rôles embarquée avec @ElementCollection)
-INSERT INTO user_roles (user_id, roles) VALUES (1, 'ROLE_USER');
\ No newline at end of file
+INSERT INTO user_roles (user_id, roles) VALUES (1, 'ROLE_USER');
+
+-- Compteur de version des tâches, créé avec l'utilisateur
+INSERT INTO task_version (owner_id, version) VALUES (1, 0);
\ No newline at end of file
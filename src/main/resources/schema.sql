@@ -1,5 +1,10 @@
+-- Ids come from pooled-lo sequences; INCREMENT BY must match todo.id.increment_size.
+-- user_seq starts after the ids used by data.sql.
+CREATE SEQUENCE user_seq START WITH 51 INCREMENT BY 50;
+CREATE SEQUENCE task_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE user (
-                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                      id BIGINT PRIMARY KEY,
                       username VARCHAR(255) NOT NULL UNIQUE,
                       password VARCHAR(255) NOT NULL
 );
@@ -11,10 +16,53 @@ CREATE TABLE user_roles (
 );
 
 CREATE TABLE task (
-                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                      id BIGINT PRIMARY KEY,
                       title VARCHAR(255),
                       description VARCHAR(255),
                       done BOOLEAN,
+                      mod_seq BIGINT NOT NULL DEFAULT 0,
+                      updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
                       owner_id BIGINT,
                       FOREIGN KEY (owner_id) REFERENCES user(id)
-);
\ No newline at end of file
+);
+
+-- Keyset pagination and filters on /tasks/list
+CREATE INDEX idx_task_owner_id ON task (owner_id, id);
+CREATE INDEX idx_task_owner_done ON task (owner_id, done, id);
+CREATE INDEX idx_task_owner_title ON task (owner_id, title);
+-- Delta sync on /tasks/changes
+CREATE INDEX idx_task_owner_mod_seq ON task (owner_id, mod_seq, id);
+-- Archive job candidates
+CREATE INDEX idx_task_done_updated_at ON task (done, updated_at);
+
+-- Per-user change counter behind the ETag of task reads
+CREATE TABLE task_version (
+                      owner_id BIGINT PRIMARY KEY,
+                      version BIGINT NOT NULL,
+                      FOREIGN KEY (owner_id) REFERENCES user(id)
+);
+
+-- Deleted tasks, reported by /tasks/changes
+CREATE TABLE task_tombstone (
+                      task_id BIGINT PRIMARY KEY,
+                      owner_id BIGINT NOT NULL,
+                      mod_seq BIGINT NOT NULL,
+                      FOREIGN KEY (owner_id) REFERENCES user(id)
+);
+
+CREATE INDEX idx_task_tombstone_owner_mod_seq ON task_tombstone (owner_id, mod_seq, task_id);
+
+-- Done tasks moved out of task by the archive job
+CREATE TABLE task_archive (
+                      id BIGINT PRIMARY KEY,
+                      title VARCHAR(255),
+                      description VARCHAR(255),
+                      done BOOLEAN,
+                      owner_id BIGINT NOT NULL,
+                      mod_seq BIGINT NOT NULL,
+                      updated_at TIMESTAMP NOT NULL,
+                      archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                      FOREIGN KEY (owner_id) REFERENCES user(id)
+);
+
+CREATE INDEX idx_task_archive_owner_id ON task_archive (owner_id, id);
@@ -0,0 +1,28 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of one class, with the GC profiler so that {@code gc.alloc.rate.norm}
+ * (bytes allocated per operation) is reported next to the time. Benchmark classes are named
+ * {@code *Benchmark}, so a plain {@code mvn test} skips them; each one has a launcher test run
+ * with e.g. {@code mvn test -Dtest=TaskListReadBenchmark}.
+ */
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    static void run(Class<?> benchmark) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import com.example.todo.security.JwtUtil;
+import com.example.todo.security.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token verification (user-002), in the three cases a request can hit:
+ * <ul>
+ *     <li>{@code coldParse}: the first verification in a fresh JVM, one shot per fork;</li>
+ *     <li>{@code warmParse}: a token the cache has not seen, once the parser is JIT-compiled;</li>
+ *     <li>{@code cacheHit}: a replayed token served from the verified-token cache.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final UserDetails USER = new User("testuser", "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @State(Scope.Benchmark)
+    public static class Cold {
+        JwtUtil jwtUtil;
+        String token;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            jwtUtil = new JwtUtil(Duration.ofMinutes(15), Duration.ofDays(14), 50_000);
+            token = jwtUtil.generateToken(USER);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Uncached {
+        // A power of two, so the index wraps with a mask.
+        private static final int TOKENS = 1024;
+
+        JwtUtil jwtUtil;
+        String[] tokens;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // A cache of size zero drops every entry, so each call parses and checks the token.
+            jwtUtil = new JwtUtil(Duration.ofMinutes(15), Duration.ofDays(14), 0);
+            tokens = new String[TOKENS];
+            for (int i = 0; i < TOKENS; i++) {
+                tokens[i] = jwtUtil.generateToken(USER);
+            }
+        }
+
+        String nextToken() {
+            return tokens[next++ & (TOKENS - 1)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Cached {
+        JwtUtil jwtUtil;
+        String token;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            jwtUtil = new JwtUtil(Duration.ofMinutes(15), Duration.ofDays(14), 50_000);
+            token = jwtUtil.generateToken(USER);
+            jwtUtil.verify(token);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public VerifiedToken coldParse(Cold state) {
+        return state.jwtUtil.verify(state.token);
+    }
+
+    @Benchmark
+    public VerifiedToken warmParse(Uncached state) {
+        return state.jwtUtil.verify(state.nextToken());
+    }
+
+    @Benchmark
+    public VerifiedToken cacheHit(Cached state) {
+        return state.jwtUtil.verify(state.token);
+    }
+
+    @Test
+    void runBenchmark() throws RunnerException {
+        Benchmarks.run(JwtVerifyBenchmark.class);
+    }
+}
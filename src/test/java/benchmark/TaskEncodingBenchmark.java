@@ -0,0 +1,89 @@
+package benchmark;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Encode and decode cost of a task list as JSON, CBOR and Smile (user-023), the three formats
+ * /tasks/list negotiates. The payload size of each format is printed by the setup, before
+ * the first iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"10", "1000"})
+    public int tasks;
+
+    private ObjectMapper mapper;
+    private List<TaskDTO> list;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        switch (format) {
+            case "json":
+                mapper = new ObjectMapper();
+                break;
+            case "cbor":
+                mapper = new ObjectMapper(new CBORFactory());
+                break;
+            case "smile":
+                mapper = new ObjectMapper(new SmileFactory());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        list = LongStream.rangeClosed(1, tasks)
+                .mapToObj(id -> new TaskDTO(id, "Task " + id, "Description of task " + id, id % 3 == 0))
+                .collect(Collectors.toList());
+        encoded = mapper.writeValueAsBytes(list);
+        int json = new ObjectMapper().writeValueAsBytes(list).length;
+        System.out.printf("%d tasks as %s: %d bytes, %.0f%% of JSON%n",
+                tasks, format, encoded.length, 100.0 * encoded.length / json);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public TaskDTO[] decode() throws IOException {
+        return mapper.readValue(encoded, TaskDTO[].class);
+    }
+
+    @Test
+    void runBenchmark() throws RunnerException {
+        Benchmarks.run(TaskEncodingBenchmark.class);
+    }
+}
@@ -0,0 +1,171 @@
+package benchmark;
+
+import com.example.todo.model.entity.PooledSequenceGenerator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.SequenceGenerator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Task inserts per second (user-009) with the id generation used before, {@code identity} for
+ * users and a sequence call per row ({@code sequence}) for tasks, against the pooled-lo
+ * generator used now ({@code pooled}). {@code single} commits every task on its own, as
+ * POST /tasks does; {@code bulk} commits {@value #BULK_SIZE} tasks at once, as a batch of
+ * operations or a group commit does. Both report inserted tasks per second.
+ * <p>
+ * Runs against an in-memory H2 database with the JDBC batch settings of application.yml,
+ * through a bare Hibernate session factory so that only the id strategy differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskInsertBenchmark {
+
+    private static final int BULK_SIZE = 100;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"identity", "sequence", "pooled"})
+    public String ids;
+
+    private SessionFactory sessionFactory;
+    private Class<?> entity;
+    private Supplier<Object> newTask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (ids) {
+            case "identity":
+                entity = IdentityTask.class;
+                newTask = IdentityTask::new;
+                break;
+            case "sequence":
+                entity = SequenceTask.class;
+                newTask = SequenceTask::new;
+                break;
+            case "pooled":
+                entity = PooledTask.class;
+                newTask = PooledTask::new;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown id generation: " + ids);
+        }
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(entity)
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:task-insert-benchmark;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.USER, "sa")
+                .setProperty(AvailableSettings.PASS, "")
+                .setProperty(AvailableSettings.DIALECT, H2Dialect.class.getName())
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(PooledSequenceGenerator.INCREMENT_SIZE_SETTING, String.valueOf(BATCH_SIZE))
+                .buildSessionFactory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteTasks() {
+        inTransaction(session -> session.createQuery("delete from " + entity.getSimpleName()).executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void single() {
+        inTransaction(session -> session.persist(newTask.get()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public void bulk() {
+        inTransaction(session -> {
+            for (int i = 0; i < BULK_SIZE; i++) {
+                session.persist(newTask.get());
+            }
+        });
+    }
+
+    private void inTransaction(Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            work.accept(session);
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void runBenchmark() throws RunnerException {
+        Benchmarks.run(TaskInsertBenchmark.class);
+    }
+
+    /** Id generation of User before user-009. */
+    @Entity(name = "IdentityTask")
+    public static class IdentityTask extends TaskColumns {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        public Long id;
+    }
+
+    /** Id generation of Task before user-009: the default hibernate_sequence, one call per row. */
+    @Entity(name = "SequenceTask")
+    public static class SequenceTask extends TaskColumns {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence_task_seq")
+        @SequenceGenerator(name = "sequence_task_seq", sequenceName = "sequence_task_seq", allocationSize = 1)
+        public Long id;
+    }
+
+    /** Id generation of Task and User now. */
+    @Entity(name = "PooledTask")
+    public static class PooledTask extends TaskColumns {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pooled_task_seq")
+        @GenericGenerator(name = "pooled_task_seq", strategy = "com.example.todo.model.entity.PooledSequenceGenerator",
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "pooled_task_seq"))
+        public Long id;
+    }
+
+    @MappedSuperclass
+    public abstract static class TaskColumns {
+        public String title = "Benchmark task";
+        public String description = "Inserted by TaskInsertBenchmark";
+        public boolean done;
+        public long modSeq;
+    }
+}
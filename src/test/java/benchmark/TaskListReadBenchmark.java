@@ -0,0 +1,116 @@
+package benchmark;
+
+import com.example.todo.TodoApplication;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.entity.Task;
+import com.example.todo.model.entity.User;
+import com.example.todo.model.mapper.TaskMapper;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.UserRepository;
+import com.example.todo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Listing a user's tasks (user-016): the JPQL DTO projection used by {@code TaskService} now,
+ * against loading the managed entities, with their owner, and mapping them as it did before.
+ * Divide the time and {@code gc.alloc.rate.norm} by {@code tasks} for the cost per listed row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskListReadBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    @Param({"10", "100", "1000"})
+    public int tasks;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private TaskMapper taskMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        taskRepository = context.getBean(TaskRepository.class);
+        taskMapper = context.getBean(TaskMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        context.getBean(UserService.class).register(USERNAME, "benchmark-password");
+        User owner = context.getBean(UserRepository.class).findByUsername(USERNAME).orElseThrow();
+        List<Task> rows = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task " + i);
+            task.setDone(i % 3 == 0);
+            task.setOwner(owner);
+            rows.add(task);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> taskRepository.saveAll(rows));
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDTO> projection() {
+        return readOnly.execute(status -> taskRepository.findDTOsByOwnerUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<TaskDTO> entities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("select t from Task t where t.owner.username = :username order by t.id", Task.class)
+                .setParameter("username", USERNAME)
+                .getResultList()
+                .stream()
+                .map(taskMapper::taskToTaskDTO)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void runBenchmark() throws RunnerException {
+        Benchmarks.run(TaskListReadBenchmark.class);
+    }
+}
@@ -0,0 +1,56 @@
+package config;
+
+import com.example.todo.config.CachedTaskListHttpMessageConverter;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.service.CachedTaskList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachedTaskListHttpMessageConverterTest {
+
+    private ObjectMapper objectMapper;
+    private CachedTaskListHttpMessageConverter converter;
+    private List<TaskDTO> tasks;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(new ObjectMapper());
+        converter = new CachedTaskListHttpMessageConverter(objectMapper);
+        tasks = List.of(new TaskDTO(1L, "Test Task", "Test Description", false),
+                new TaskDTO(2L, "Other Task", null, true));
+    }
+
+    @Test
+    void canWrite_ShouldOnlyAcceptCachedListsAsJson() {
+        assertTrue(converter.canWrite(CachedTaskList.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(CachedTaskList.class, MediaType.APPLICATION_CBOR));
+        assertFalse(converter.canWrite(ArrayList.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(CachedTaskList.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void write_ShouldWriteSameJsonAsJacksonAndEncodeOnlyOnce() throws IOException {
+        CachedTaskList cached = new CachedTaskList(tasks);
+        String expected = new ObjectMapper().writeValueAsString(tasks);
+
+        MockHttpOutputMessage first = new MockHttpOutputMessage();
+        converter.write(cached, MediaType.APPLICATION_JSON, first);
+        MockHttpOutputMessage second = new MockHttpOutputMessage();
+        converter.write(cached, MediaType.APPLICATION_JSON, second);
+
+        assertEquals(expected, first.getBodyAsString());
+        assertEquals(expected, second.getBodyAsString());
+        assertEquals(expected.length(), second.getHeaders().getContentLength());
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+    }
+}
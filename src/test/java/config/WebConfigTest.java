@@ -0,0 +1,71 @@
+package config;
+
+import com.example.todo.config.WebConfig;
+import com.example.todo.model.dto.TaskDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebConfigTest {
+
+    private static final Type TASK_LIST = new ParameterizedTypeReference<List<TaskDTO>>() { }.getType();
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private WebConfig webConfig;
+    private List<TaskDTO> tasks;
+
+    @BeforeEach
+    void setUp() {
+        webConfig = new WebConfig();
+        tasks = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> new TaskDTO(id, "Task " + id, "Description of task " + id, id % 2 == 0))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void cborConverter_ShouldRoundTripTasksInLessSpaceThanJson() throws IOException {
+        AbstractJackson2HttpMessageConverter cbor = webConfig.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+
+        byte[] encoded = write(cbor, MediaType.APPLICATION_CBOR);
+
+        assertTrue(cbor.canRead(TaskDTO.class, MediaType.APPLICATION_CBOR));
+        assertEquals(tasks, read(cbor, encoded));
+        assertTrue(encoded.length < write(new MappingJackson2HttpMessageConverter(), MediaType.APPLICATION_JSON).length);
+    }
+
+    @Test
+    void smileConverter_ShouldRoundTripTasksInLessSpaceThanJson() throws IOException {
+        AbstractJackson2HttpMessageConverter smile = webConfig.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+
+        byte[] encoded = write(smile, SMILE);
+
+        assertTrue(smile.canRead(TaskDTO.class, SMILE));
+        assertEquals(tasks, read(smile, encoded));
+        assertTrue(encoded.length < write(new MappingJackson2HttpMessageConverter(), MediaType.APPLICATION_JSON).length);
+    }
+
+    private byte[] write(AbstractJackson2HttpMessageConverter converter, MediaType mediaType) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(tasks, TASK_LIST, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TaskDTO> read(AbstractJackson2HttpMessageConverter converter, byte[] encoded) throws IOException {
+        return (List<TaskDTO>) converter.read(TASK_LIST, null, new MockHttpInputMessage(encoded));
+    }
+}
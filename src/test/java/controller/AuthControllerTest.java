@@ -1,18 +1,30 @@
 package controller;
 
 import com.example.todo.controller.AuthController;
+import com.example.todo.exception.RestExceptionHandler;
+import com.example.todo.exception.ServiceUnavailableException;
+import com.example.todo.exception.UnauthorizedException;
 import com.example.todo.model.dto.AuthRequest;
 import com.example.todo.model.dto.AuthResponse;
+import com.example.todo.model.dto.RefreshRequest;
 import com.example.todo.model.dto.RegisterRequest;
 import com.example.todo.security.JwtUtil;
+import com.example.todo.security.PasswordHashingExecutor;
+import com.example.todo.security.TokenRevocationList;
+import com.example.todo.security.TokenType;
+import com.example.todo.security.VerifiedToken;
 import com.example.todo.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -21,11 +33,19 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthControllerTest {
@@ -42,6 +62,13 @@ public class AuthControllerTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private TokenRevocationList revocationList;
+
+    @Spy
+    private PasswordHashingExecutor passwordHashingExecutor =
+            new PasswordHashingExecutor(1, 10, 1, new SimpleMeterRegistry());
+
     @InjectMocks
     private AuthController authController;
 
@@ -72,7 +99,7 @@ public class AuthControllerTest {
     void register_WithValidRequest_ShouldReturnOk() {
         doNothing().when(userService).register(registerRequest.getUsername(), registerRequest.getPassword());
 
-        ResponseEntity<?> response = authController.register(registerRequest);
+        ResponseEntity<?> response = await(authController.register(registerRequest));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -87,7 +114,7 @@ public class AuthControllerTest {
                 .when(userService).register(registerRequest.getUsername(), registerRequest.getPassword());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            authController.register(registerRequest);
+            await(authController.register(registerRequest));
         });
 
         assertEquals(errorMessage, exception.getMessage());
@@ -97,7 +124,7 @@ public class AuthControllerTest {
     @Test
     void register_WithNullRequest_ShouldThrowException() {
         assertThrows(Exception.class, () -> {
-            authController.register(null);
+            await(authController.register(null));
         });
     }
 
@@ -109,13 +136,30 @@ public class AuthControllerTest {
 
         doNothing().when(userService).register(null, "password123");
 
-        ResponseEntity<?> response = authController.register(requestWithNullUsername);
+        ResponseEntity<?> response = await(authController.register(requestWithNullUsername));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(userService, times(1)).register(null, "password123");
     }
 
+    @Test
+    void login_WhenHashingQueueIsFull_ShouldAnswerServiceUnavailableWithRetryAfter() throws Exception {
+        doThrow(new ServiceUnavailableException("Too many authentication requests, please retry later", 1))
+                .when(passwordHashingExecutor).execute(any());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"testuser\",\"password\":\"password123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        verifyNoInteractions(authManager);
+    }
+
     // ========== login TESTS ==========
 
     @Test
@@ -127,7 +171,7 @@ public class AuthControllerTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(jwtUtil.generateToken(userDetails)).thenReturn(expectedToken);
 
-        ResponseEntity<AuthResponse> response = authController.login(authRequest);
+        ResponseEntity<AuthResponse> response = await(authController.login(authRequest));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -145,7 +189,7 @@ public class AuthControllerTest {
                 .thenThrow(new BadCredentialsException("Bad credentials"));
 
         BadCredentialsException exception = assertThrows(BadCredentialsException.class, () -> {
-            authController.login(authRequest);
+            await(authController.login(authRequest));
         });
 
         assertEquals("Bad credentials", exception.getMessage());
@@ -157,7 +201,7 @@ public class AuthControllerTest {
     @Test
     void login_WithNullRequest_ShouldThrowException() {
         assertThrows(Exception.class, () -> {
-            authController.login(null);
+            await(authController.login(null));
         });
     }
 
@@ -172,7 +216,7 @@ public class AuthControllerTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(jwtUtil.generateToken(userDetails)).thenReturn("token");
 
-        ResponseEntity<AuthResponse> response = authController.login(requestWithEmptyPassword);
+        ResponseEntity<AuthResponse> response = await(authController.login(requestWithEmptyPassword));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -197,7 +241,7 @@ public class AuthControllerTest {
         when(authentication.getPrincipal()).thenReturn(differentUserDetails);
         when(jwtUtil.generateToken(differentUserDetails)).thenReturn("adminToken");
 
-        ResponseEntity<AuthResponse> response = authController.login(authRequest);
+        ResponseEntity<AuthResponse> response = await(authController.login(authRequest));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -210,11 +254,82 @@ public class AuthControllerTest {
                 .thenThrow(new RuntimeException("Authentication service unavailable"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            authController.login(authRequest);
+            await(authController.login(authRequest));
         });
 
         assertEquals("Authentication service unavailable", exception.getMessage());
     }
 
+    // ========== refresh TESTS ==========
+
+    @Test
+    void refresh_WithValidRefreshToken_ShouldRotateTokens() {
+        VerifiedToken refreshToken = new VerifiedToken("refresh-id", TokenType.REFRESH, "testuser",
+                Collections.emptyList(), System.currentTimeMillis() + 60000);
+        when(jwtUtil.verify("refresh.token")).thenReturn(refreshToken);
+        when(revocationList.revoke("refresh-id", refreshToken.getExpiresAt())).thenReturn(true);
+        when(userService.loadUserByUsername("testuser")).thenReturn(userDetails);
+        when(jwtUtil.generateToken(userDetails)).thenReturn("new.access.token");
+        when(jwtUtil.generateRefreshToken(userDetails)).thenReturn("new.refresh.token");
+
+        ResponseEntity<AuthResponse> response = authController.refresh(new RefreshRequest("refresh.token"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("new.access.token", response.getBody().getToken());
+        assertEquals("new.refresh.token", response.getBody().getRefreshToken());
+        verify(revocationList, times(1)).revoke("refresh-id", refreshToken.getExpiresAt());
+    }
+
+    @Test
+    void refresh_WithAlreadyUsedRefreshToken_ShouldThrowUnauthorized() {
+        VerifiedToken refreshToken = new VerifiedToken("refresh-id", TokenType.REFRESH, "testuser",
+                Collections.emptyList(), System.currentTimeMillis() + 60000);
+        when(jwtUtil.verify("refresh.token")).thenReturn(refreshToken);
+        when(revocationList.revoke("refresh-id", refreshToken.getExpiresAt())).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> {
+            authController.refresh(new RefreshRequest("refresh.token"));
+        });
+
+        verify(jwtUtil, never()).generateToken(any());
+    }
+
+    @Test
+    void refresh_WithAccessToken_ShouldThrowUnauthorized() {
+        VerifiedToken accessToken = new VerifiedToken("access-id", TokenType.ACCESS, "testuser",
+                Collections.emptyList(), System.currentTimeMillis() + 60000);
+        when(jwtUtil.verify("access.token")).thenReturn(accessToken);
+
+        assertThrows(UnauthorizedException.class, () -> {
+            authController.refresh(new RefreshRequest("access.token"));
+        });
+
+        verify(revocationList, never()).revoke(anyString(), anyLong());
+    }
+
+    @Test
+    void refresh_ReusingRotatedRefreshToken_ShouldThrowUnauthorized() {
+        JwtUtil realJwtUtil = new JwtUtil(Duration.ofMinutes(15), Duration.ofDays(14), 100);
+        AuthController controller = new AuthController(userService, realJwtUtil, authManager,
+                passwordHashingExecutor, new TokenRevocationList(1000, 0.01));
+        when(userService.loadUserByUsername("testuser")).thenReturn(userDetails);
+        String refreshToken = realJwtUtil.generateRefreshToken(userDetails);
+
+        AuthResponse rotated = controller.refresh(new RefreshRequest(refreshToken)).getBody();
+
+        assertNotNull(rotated);
+        assertThrows(UnauthorizedException.class, () -> controller.refresh(new RefreshRequest(refreshToken)));
+        assertNotNull(controller.refresh(new RefreshRequest(rotated.getRefreshToken())).getBody());
+    }
 
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 }
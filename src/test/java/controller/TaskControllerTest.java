@@ -1,20 +1,36 @@
 package controller;
 
 import com.example.todo.controller.TaskController;
+import com.example.todo.model.dto.TaskChangesDTO;
+import com.example.todo.exception.BadRequestException;
+import com.example.todo.exception.ForbiddenException;
 import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.dto.TaskField;
+import com.example.todo.service.IdempotencyStore;
+import com.example.todo.service.TaskCreateBatcher;
 import com.example.todo.service.TaskService;
+import com.example.todo.service.TaskSyncService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,14 +41,26 @@ public class TaskControllerTest {
     @Mock
     private TaskService taskService;
 
+    @Mock
+    private TaskSyncService taskSyncService;
+
+    @Mock
+    private TaskCreateBatcher taskCreateBatcher;
+
     @Mock
     private Principal principal;
 
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     @InjectMocks
     private TaskController taskController;
 
     private TaskDTO taskDTO;
     private String username;
+    private MockHttpServletRequest httpRequest;
+    private MockHttpServletResponse httpResponse;
+    private ServletWebRequest webRequest;
 
     @BeforeEach
     void setUp() {
@@ -44,6 +72,10 @@ public class TaskControllerTest {
         taskDTO.setDone(false);
 
         when(principal.getName()).thenReturn(username);
+
+        httpRequest = new MockHttpServletRequest("GET", "/tasks/list");
+        httpResponse = new MockHttpServletResponse();
+        webRequest = new ServletWebRequest(httpRequest, httpResponse);
     }
 
     // ========== listTasks TESTS ==========
@@ -51,54 +83,216 @@ public class TaskControllerTest {
     @Test
     void listTasks_WithValidPrincipal_ShouldReturnTaskList() {
         List<TaskDTO> taskList = Arrays.asList(taskDTO);
-        when(taskService.getTasksForUser(username)).thenReturn(taskList);
+        when(taskService.getTasksForUser(username, 0L)).thenReturn(taskList);
 
-        List<TaskDTO> result = taskController.listTasks(principal);
+        List<TaskDTO> result = taskController.listTasks(null, null, null, null, principal, webRequest).getBody();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Task", result.get(0).getTitle());
-        verify(taskService, times(1)).getTasksForUser(username);
+        verify(taskService, times(1)).getTasksForUser(username, 0L);
         verify(principal, times(1)).getName();
     }
 
     @Test
     void listTasks_WithEmptyTaskList_ShouldReturnEmptyList() {
         List<TaskDTO> emptyList = List.of();
-        when(taskService.getTasksForUser(username)).thenReturn(emptyList);
+        when(taskService.getTasksForUser(username, 0L)).thenReturn(emptyList);
 
-        List<TaskDTO> result = taskController.listTasks(principal);
+        List<TaskDTO> result = taskController.listTasks(null, null, null, null, principal, webRequest).getBody();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(taskService, times(1)).getTasksForUser(username);
+        verify(taskService, times(1)).getTasksForUser(username, 0L);
+    }
+
+    @Test
+    void listTasks_ShouldSendTaskVersionAsETag() {
+        when(taskService.getVersion(username)).thenReturn(7L);
+        when(taskService.getTasksForUser(username, 7L)).thenReturn(List.of(taskDTO));
+
+        ResponseEntity<List<TaskDTO>> response = taskController.listTasks(null, null, null, null, principal, webRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("W/\"7\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void listTasks_ShouldVaryByAuthorizationAndAccept() {
+        when(taskService.getVersion(username)).thenReturn(7L);
+        when(taskService.getTasksForUser(username, 7L)).thenReturn(List.of(taskDTO));
+
+        ResponseEntity<List<TaskDTO>> response = taskController.listTasks(null, null, null, null, principal, webRequest);
+
+        assertEquals(List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT), response.getHeaders().getVary());
+    }
+
+    @Test
+    void listTasks_WithMatchingIfNoneMatch_ShouldAnswerNotModifiedWithoutLoadingTasks() {
+        when(taskService.getVersion(username)).thenReturn(7L);
+        httpRequest.addHeader("If-None-Match", "W/\"7\"");
+
+        ResponseEntity<List<TaskDTO>> response = taskController.listTasks(null, null, null, null, principal, webRequest);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), httpResponse.getStatus());
+        verify(taskService, never()).getTasksForUser(anyString(), anyLong());
+        verify(taskService, never()).getTaskPage(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void listTasks_WithStaleIfNoneMatch_ShouldReturnTasks() {
+        when(taskService.getVersion(username)).thenReturn(8L);
+        when(taskService.getTasksForUser(username, 8L)).thenReturn(List.of(taskDTO));
+        httpRequest.addHeader("If-None-Match", "W/\"7\"");
+
+        ResponseEntity<List<TaskDTO>> response = taskController.listTasks(null, null, null, null, principal, webRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("W/\"8\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void listTasks_WithFullPage_ShouldSendNextCursor() {
+        taskDTO.setId(42L);
+        when(taskService.getTaskPage(username, 10L, 1, false, null)).thenReturn(List.of(taskDTO));
+
+        ResponseEntity<List<TaskDTO>> response = taskController.listTasks(10L, 1, false, null, principal, webRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals("42", response.getHeaders().getFirst(TaskController.NEXT_CURSOR_HEADER));
+        verify(taskService, never()).getTasksForUser(anyString(), anyLong());
+    }
+
+    @Test
+    void listTasks_WithLastPage_ShouldNotSendNextCursor() {
+        when(taskService.getTaskPage(username, null, 50, null, "Test")).thenReturn(List.of(taskDTO));
+
+        ResponseEntity<List<TaskDTO>> response = taskController.listTasks(null, 50, null, "Test", principal, webRequest);
+
+        assertEquals(1, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(TaskController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void listTaskFields_ShouldPassRequestedFieldsAndSendNextCursor() {
+        Map<String, Object> row = Map.of("id", 42L, "title", "Test Task");
+        when(taskService.getTaskFields(username, EnumSet.of(TaskField.ID, TaskField.TITLE), null, 1, null, null))
+                .thenReturn(List.of(row));
+
+        ResponseEntity<List<Map<String, Object>>> response =
+                taskController.listTaskFields("title", null, 1, null, null, principal, webRequest);
+
+        assertEquals(List.of(row), response.getBody());
+        assertEquals("42", response.getHeaders().getFirst(TaskController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void listTaskFields_WithUnknownField_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> taskController.listTaskFields("title,owner", null, null, null, null, principal, webRequest));
+        verifyNoInteractions(taskService);
+    }
+
+    // ========== getTask TESTS ==========
+
+    @Test
+    void getTask_ShouldReturnTaskWithETag() {
+        when(taskService.getVersion(username)).thenReturn(3L);
+        when(taskService.getTask(1L, username)).thenReturn(taskDTO);
+
+        ResponseEntity<TaskDTO> response = taskController.getTask(1L, principal, webRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(taskDTO, response.getBody());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getTask_WithMatchingIfNoneMatch_ShouldAnswerNotModified() {
+        when(taskService.getVersion(username)).thenReturn(3L);
+        when(taskService.getTask(1L, username)).thenReturn(taskDTO);
+        httpRequest.addHeader("If-None-Match", "W/\"3\"");
+
+        ResponseEntity<TaskDTO> response = taskController.getTask(1L, principal, webRequest);
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), httpResponse.getStatus());
+    }
+
+    @Test
+    void getTask_OfAnotherUserWithMatchingIfNoneMatch_ShouldBeForbidden() {
+        when(taskService.getVersion(username)).thenReturn(3L);
+        when(taskService.getTask(2L, username)).thenThrow(new ForbiddenException("Not the owner"));
+        httpRequest.addHeader("If-None-Match", "W/\"3\"");
+
+        assertThrows(ForbiddenException.class, () -> taskController.getTask(2L, principal, webRequest));
+        assertNotEquals(HttpStatus.NOT_MODIFIED.value(), httpResponse.getStatus());
+    }
+
+    // ========== changes TESTS ==========
+
+    @Test
+    void changes_ShouldReturnChangesAfterWatermark() {
+        TaskChangesDTO changes = new TaskChangesDTO(List.of(), 12L, 0L, false);
+        when(taskSyncService.getChanges(username, 12L, 0L, null)).thenReturn(changes);
+
+        ResponseEntity<TaskChangesDTO> response = taskController.changes(12L, 0L, null, principal);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(changes, response.getBody());
     }
 
     // ========== create TESTS ==========
 
     @Test
     void create_WithValidTask_ShouldReturnCreatedResponse() {
-        when(taskService.create(taskDTO, username)).thenReturn(taskDTO);
+        when(taskCreateBatcher.create(taskDTO, username)).thenReturn(taskDTO);
 
-        ResponseEntity<TaskDTO> response = taskController.create(taskDTO, principal);
+        ResponseEntity<TaskDTO> response = taskController.create(taskDTO, null, principal);
 
         assertNotNull(response);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Test Task", response.getBody().getTitle());
-        verify(taskService, times(1)).create(taskDTO, username);
+        verify(taskCreateBatcher, times(1)).create(taskDTO, username);
         verify(principal, times(1)).getName();
     }
 
     @Test
     void create_WithNullTask_ShouldPassNullToService() {
-        when(taskService.create(null, username)).thenReturn(null);
+        when(taskCreateBatcher.create(null, username)).thenReturn(null);
 
-        ResponseEntity<TaskDTO> response = taskController.create(null, principal);
+        ResponseEntity<TaskDTO> response = taskController.create(null, null, principal);
 
         assertNotNull(response);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        verify(taskService, times(1)).create(null, username);
+        verify(taskCreateBatcher, times(1)).create(null, username);
+    }
+
+    @Test
+    void create_ShouldGoThroughBatcher() {
+        when(taskCreateBatcher.create(taskDTO, username)).thenReturn(taskDTO);
+
+        ResponseEntity<TaskDTO> response = taskController.create(taskDTO, null, principal);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertSame(taskDTO, response.getBody());
+        verify(taskService, never()).create(any(), anyString());
+    }
+
+    @Test
+    void create_WithRepeatedIdempotencyKey_ShouldReplayFirstResponse() {
+        when(taskCreateBatcher.create(taskDTO, username)).thenReturn(taskDTO);
+
+        ResponseEntity<TaskDTO> first = taskController.create(taskDTO, "key-1", principal);
+        ResponseEntity<TaskDTO> retry = taskController.create(taskDTO, "key-1", principal);
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertSame(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        verify(taskCreateBatcher, times(1)).create(taskDTO, username);
     }
 
     // ========== update TESTS ==========
@@ -109,7 +303,7 @@ public class TaskControllerTest {
         ResponseEntity<TaskDTO> serviceResponse = ResponseEntity.ok(taskDTO);
         when(taskService.update(taskId, taskDTO, username)).thenReturn(serviceResponse);
 
-        ResponseEntity<TaskDTO> response = taskController.update(taskId, taskDTO, principal);
+        ResponseEntity<TaskDTO> response = taskController.update(taskId, taskDTO, null, principal);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -125,7 +319,7 @@ public class TaskControllerTest {
         ResponseEntity<TaskDTO> serviceResponse = ResponseEntity.ok(taskDTO);
         when(taskService.update(pathTaskId, taskDTO, username)).thenReturn(serviceResponse);
 
-        ResponseEntity<TaskDTO> response = taskController.update(pathTaskId, taskDTO, principal);
+        ResponseEntity<TaskDTO> response = taskController.update(pathTaskId, taskDTO, null, principal);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -138,7 +332,7 @@ public class TaskControllerTest {
         ResponseEntity<TaskDTO> serviceResponse = ResponseEntity.ok(null);
         when(taskService.update(taskId, null, username)).thenReturn(serviceResponse);
 
-        ResponseEntity<TaskDTO> response = taskController.update(taskId, null, principal);
+        ResponseEntity<TaskDTO> response = taskController.update(taskId, null, null, principal);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -148,15 +342,24 @@ public class TaskControllerTest {
     // ========== delete TESTS ==========
 
     @Test
-    void delete_WhenServiceReturnsNotFound_ShouldReturnNotFound() {
-        Long taskId = 99L;
-        when(taskService.delete(taskId, username)).thenReturn(null);
+    void delete_ShouldReturnServiceResponseAndDeleteOnce() {
+        Long taskId = 1L;
+        doReturn(ResponseEntity.noContent().build()).when(taskService).delete(taskId, username);
 
-        ResponseEntity<Void> response = taskController.delete(taskId, principal);
+        ResponseEntity<?> response = taskController.delete(taskId, null, principal);
 
         assertNotNull(response);
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(taskService, times(1)).delete(taskId, username); // Called only once due to null check
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(taskService, times(1)).delete(taskId, username);
+    }
+
+    @Test
+    void delete_WhenServiceThrowsForbidden_ShouldPropagate() {
+        Long taskId = 99L;
+        when(taskService.delete(taskId, username)).thenThrow(new ForbiddenException("Not the owner"));
+
+        assertThrows(ForbiddenException.class, () -> taskController.delete(taskId, null, principal));
+        verify(taskService, times(1)).delete(taskId, username);
     }
 
     // ========== Other TESTS ==========
@@ -164,13 +367,13 @@ public class TaskControllerTest {
     void create_WithEmptyUsername_ShouldPassEmptyUsernameToService() {
         String emptyUsername = "";
         when(principal.getName()).thenReturn(emptyUsername);
-        when(taskService.create(taskDTO, emptyUsername)).thenReturn(taskDTO);
+        when(taskCreateBatcher.create(taskDTO, emptyUsername)).thenReturn(taskDTO);
 
-        ResponseEntity<TaskDTO> response = taskController.create(taskDTO, principal);
+        ResponseEntity<TaskDTO> response = taskController.create(taskDTO, null, principal);
 
         assertNotNull(response);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        verify(taskService, times(1)).create(taskDTO, emptyUsername);
+        verify(taskCreateBatcher, times(1)).create(taskDTO, emptyUsername);
     }
 
 
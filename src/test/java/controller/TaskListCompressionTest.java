@@ -0,0 +1,63 @@
+package controller;
+
+import com.example.todo.TodoApplication;
+import com.example.todo.model.dto.AuthRequest;
+import com.example.todo.model.dto.AuthResponse;
+import com.example.todo.model.dto.TaskDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the embedded Tomcat, since compression is done by the connector and not by Spring MVC.
+ */
+@SpringBootTest(classes = TodoApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TaskListCompressionTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void listTasks_WithAcceptEncodingGzip_ShouldBeCompressed() throws IOException {
+        AuthResponse tokens = restTemplate.postForObject("/auth/login", new AuthRequest("testuser", "test123"), AuthResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokens.getToken());
+        for (int i = 0; i < 20; i++) {
+            TaskDTO task = new TaskDTO(null, "Task " + i, "Long enough description ".repeat(10), false);
+            ResponseEntity<TaskDTO> created = restTemplate.exchange("/tasks/create", HttpMethod.POST,
+                    new HttpEntity<>(task, headers), TaskDTO.class);
+            assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        }
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<byte[]> response = restTemplate.exchange("/tasks/list", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders().getETag().startsWith("W/"));
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            TaskDTO[] tasks = objectMapper.readValue(body, TaskDTO[].class);
+            assertTrue(tasks.length >= 20);
+        }
+    }
+}
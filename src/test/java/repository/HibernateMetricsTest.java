@@ -0,0 +1,36 @@
+package repository;
+
+import com.example.todo.TodoApplication;
+import com.example.todo.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Hibernate statistics enabled in application.yml are published as meters.
+ */
+@SpringBootTest(classes = TodoApplication.class)
+public class HibernateMetricsTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void findByUsername_ShouldBeCountedByTheNaturalIdCacheMeters() {
+        assertTrue(userRepository.findByUsername("testuser").isPresent());
+        // A new session, so the id is resolved through the natural-id cache this time.
+        assertTrue(userRepository.findByUsername("testuser").isPresent());
+
+        FunctionCounter hits = meterRegistry.get("hibernate.cache.natural.id.requests").tag("result", "hit").functionCounter();
+        FunctionCounter misses = meterRegistry.get("hibernate.cache.natural.id.requests").tag("result", "miss").functionCounter();
+        assertTrue(hits.count() >= 1);
+        assertTrue(hits.count() + misses.count() >= 2);
+    }
+}
@@ -0,0 +1,105 @@
+package repository;
+
+import com.example.todo.TodoApplication;
+import com.example.todo.model.entity.PooledSequenceGenerator;
+import com.example.todo.model.entity.Role;
+import com.example.todo.model.entity.Task;
+import com.example.todo.model.entity.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ids of {@link Task} and {@link User} come from {@link PooledSequenceGenerator} and the sequences
+ * in schema.sql, which must agree with each other and with the rows of data.sql.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TodoApplication.class)
+public class PooledIdGenerationTest {
+    private static final int INCREMENT_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    void saveUser_AfterTheSeededUser_ShouldGetAFreeId() {
+        User user = new User();
+        user.setUsername("pooled-id-user");
+        user.setPassword("secret");
+        user.setRoles(Set.of(Role.ROLE_USER));
+
+        User saved = userRepository.saveAndFlush(user);
+
+        // data.sql inserts id 1; user_seq starts after the ids it may use.
+        assertTrue(saved.getId() > 1);
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void saveTasks_AcrossAllocationBlocks_ShouldNeverReuseAnId() {
+        User owner = userRepository.findByUsername("testuser").orElseThrow();
+        List<Long> ids = new ArrayList<>(saveTasks(owner, INCREMENT_SIZE));
+        // Another instance takes the next block of the same sequence.
+        long otherBlock = ((Number) entityManager.getEntityManager()
+                .createNativeQuery("select next value for task_seq")
+                .getSingleResult()).longValue();
+        ids.addAll(saveTasks(owner, 2 * INCREMENT_SIZE));
+
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        for (Long id : ids) {
+            assertFalse(id >= otherBlock && id < otherBlock + INCREMENT_SIZE,
+                    "Task id " + id + " belongs to the block starting at " + otherBlock);
+        }
+    }
+
+    @Test
+    void saveTasks_ShouldBatchTheInserts() {
+        User owner = userRepository.findByUsername("testuser").orElseThrow();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        long insertsBefore = statistics.getEntityInsertCount();
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        saveTasks(owner, 2 * INCREMENT_SIZE);
+
+        assertEquals(2 * INCREMENT_SIZE, statistics.getEntityInsertCount() - insertsBefore);
+        // One statement per JDBC batch of 50 rows and per sequence call, instead of one per row.
+        assertTrue(statistics.getPrepareStatementCount() - statementsBefore <= 10,
+                "Prepared " + (statistics.getPrepareStatementCount() - statementsBefore) + " statements");
+    }
+
+    private List<Long> saveTasks(User owner, int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTitle("Pooled id task " + i);
+            task.setOwner(owner);
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+        entityManager.flush();
+        List<Long> ids = new ArrayList<>(count);
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+}
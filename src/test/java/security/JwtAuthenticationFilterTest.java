@@ -0,0 +1,110 @@
+package security;
+
+import com.example.todo.security.JwtAuthenticationFilter;
+import com.example.todo.security.JwtUtil;
+import com.example.todo.security.PrincipalCache;
+import com.example.todo.security.TokenRevocationList;
+import com.example.todo.security.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationList revocationList;
+    private JwtAuthenticationFilter filter;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(Duration.ofMinutes(15), Duration.ofDays(14), 100);
+        revocationList = new TokenRevocationList(1000, 0.01);
+        filter = new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, true);
+        user = new User("testuser", "encodedPassword", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_Stateless_ShouldAuthenticateFromTokenClaimsOnly() throws ServletException, IOException {
+        Authentication auth = filter(jwtUtil.generateToken(user));
+
+        assertNotNull(auth);
+        assertEquals("testuser", ((UserDetails) auth.getPrincipal()).getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), List.copyOf(auth.getAuthorities()));
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void doFilter_NotStateless_ShouldLoadPrincipalThroughCache() throws ServletException, IOException {
+        filter = new JwtAuthenticationFilter(jwtUtil, principalCache, revocationList, false);
+        when(principalCache.get("testuser")).thenReturn(user);
+
+        Authentication auth = filter(jwtUtil.generateToken(user));
+
+        assertSame(user, auth.getPrincipal());
+        verify(principalCache, times(1)).get("testuser");
+    }
+
+    @Test
+    void doFilter_WithExpiredToken_ShouldNotAuthenticate() throws ServletException, IOException {
+        JwtUtil expiringJwtUtil = new JwtUtil(Duration.ofMinutes(-1), Duration.ofDays(14), 100);
+        filter = new JwtAuthenticationFilter(expiringJwtUtil, principalCache, revocationList, true);
+
+        assertNull(filter(expiringJwtUtil.generateToken(user)));
+    }
+
+    @Test
+    void doFilter_WithRevokedAccessToken_ShouldNotAuthenticate() throws ServletException, IOException {
+        String accessToken = jwtUtil.generateToken(user);
+        VerifiedToken verified = jwtUtil.verify(accessToken);
+        revocationList.revoke(verified.getId(), verified.getExpiresAt());
+
+        assertNull(filter(accessToken));
+    }
+
+    @Test
+    void doFilter_WithRefreshToken_ShouldNotAuthenticate() throws ServletException, IOException {
+        String refreshToken = jwtUtil.generateRefreshToken(user);
+
+        assertNull(filter(refreshToken));
+    }
+
+    private Authentication filter(String token) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/list");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest(), "the request must always continue down the chain");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
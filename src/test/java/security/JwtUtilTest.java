@@ -0,0 +1,67 @@
+package security;
+
+import com.example.todo.security.JwtUtil;
+import com.example.todo.security.TokenType;
+import com.example.todo.security.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(Duration.ofMinutes(15), Duration.ofDays(14), 100);
+        user = new User("testuser", "encodedPassword", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void verify_WithAccessToken_ShouldReturnSubjectAndRoles() {
+        VerifiedToken token = jwtUtil.verify(jwtUtil.generateToken(user));
+
+        assertEquals(TokenType.ACCESS, token.getType());
+        assertEquals("testuser", token.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), token.getAuthorities());
+        assertNotNull(token.getId());
+        assertTrue(token.getExpiresAt() > System.currentTimeMillis());
+    }
+
+    @Test
+    void verify_WithRefreshToken_ShouldReturnRefreshTypeWithoutRoles() {
+        VerifiedToken token = jwtUtil.verify(jwtUtil.generateRefreshToken(user));
+
+        assertEquals(TokenType.REFRESH, token.getType());
+        assertTrue(token.getAuthorities().isEmpty());
+    }
+
+    @Test
+    void verify_SameTokenTwice_ShouldHitTheCache() {
+        String token = jwtUtil.generateToken(user);
+
+        VerifiedToken first = jwtUtil.verify(token);
+        VerifiedToken second = jwtUtil.verify(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldThrow() {
+        JwtUtil expiringJwtUtil = new JwtUtil(Duration.ofMinutes(-1), Duration.ofDays(14), 100);
+        String token = expiringJwtUtil.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> expiringJwtUtil.verify(token));
+        // Not cached either, the second attempt is refused the same way.
+        assertThrows(ExpiredJwtException.class, () -> expiringJwtUtil.verify(token));
+    }
+}
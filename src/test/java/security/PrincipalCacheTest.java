@@ -0,0 +1,68 @@
+package security;
+
+import com.example.todo.model.event.UserChangedEvent;
+import com.example.todo.security.PrincipalCache;
+import com.example.todo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalCacheTest {
+
+    @Mock
+    private UserService userService;
+
+    private PrincipalCache principalCache;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userService, 100, Duration.ofMinutes(1));
+        user = new User("testuser", "encodedPassword", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void get_ShouldLoadUserOnce() {
+        when(userService.loadUserByUsername("testuser")).thenReturn(user);
+
+        assertSame(user, principalCache.get("testuser"));
+        assertSame(user, principalCache.get("testuser"));
+
+        verify(userService, times(1)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void onUserChanged_ShouldReloadUserOnNextGet() {
+        UserDetails rehashed = new User("testuser", "rehashedPassword", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(userService.loadUserByUsername("testuser")).thenReturn(user, rehashed);
+        principalCache.get("testuser");
+
+        principalCache.onUserChanged(new UserChangedEvent("testuser"));
+
+        assertSame(rehashed, principalCache.get("testuser"));
+        verify(userService, times(2)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void get_WithZeroTtl_ShouldAlwaysLoad() {
+        principalCache = new PrincipalCache(userService, 100, Duration.ZERO);
+        when(userService.loadUserByUsername("testuser")).thenReturn(user);
+
+        principalCache.get("testuser");
+        principalCache.get("testuser");
+
+        verify(userService, times(2)).loadUserByUsername("testuser");
+    }
+}
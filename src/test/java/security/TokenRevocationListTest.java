@@ -0,0 +1,64 @@
+package security;
+
+import com.example.todo.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRevocationListTest {
+
+    private TokenRevocationList revocationList;
+    private long inOneHour;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(1000, 0.01);
+        inOneHour = System.currentTimeMillis() + 3_600_000;
+    }
+
+    @Test
+    void revoke_ShouldRevokeTokenOnce() {
+        assertFalse(revocationList.isRevoked("token-id"));
+
+        assertTrue(revocationList.revoke("token-id", inOneHour));
+        assertFalse(revocationList.revoke("token-id", inOneHour));
+
+        assertTrue(revocationList.isRevoked("token-id"));
+        assertFalse(revocationList.isRevoked("other-token-id"));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void prune_ShouldDropExpiredEntriesOnly() {
+        revocationList.revoke("expired", System.currentTimeMillis() - 1);
+        revocationList.revoke("live", inOneHour);
+
+        revocationList.prune();
+
+        assertFalse(revocationList.isRevoked("expired"));
+        assertTrue(revocationList.isRevoked("live"));
+        // Gone from the exact set too, not only from the rebuilt filter.
+        assertTrue(revocationList.revoke("expired", inOneHour));
+    }
+
+    @Test
+    void isRevoked_ShouldHaveNoFalseNegatives() {
+        // Five times the expected insertions, so the filter is well past its target false positive rate.
+        List<String> ids = IntStream.range(0, 5000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .collect(Collectors.toList());
+        ids.forEach(id -> revocationList.revoke(id, inOneHour));
+
+        ids.forEach(id -> assertTrue(revocationList.isRevoked(id), id));
+
+        revocationList.prune();
+
+        ids.forEach(id -> assertTrue(revocationList.isRevoked(id), id));
+    }
+}
@@ -0,0 +1,93 @@
+package service;
+
+import com.example.todo.model.dto.UserDTO;
+import com.example.todo.model.entity.Role;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.UserRepository;
+import com.example.todo.service.AdminService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdminServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @InjectMocks
+    private AdminService adminService;
+
+    @Test
+    void getUserPage_ShouldAttachRolesAndTaskCounts() {
+        when(userRepository.findDTOPage(10L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new UserDTO(11L, "alice"), new UserDTO(12L, "bob")));
+        when(userRepository.findRolesByUserIds(any())).thenReturn(List.of(
+                roleRow(11L, Role.ROLE_USER), roleRow(11L, Role.ROLE_ADMIN), roleRow(12L, Role.ROLE_USER)));
+        when(taskRepository.countByOwnerIds(any())).thenReturn(List.of(countRow(11L, 5, 2)));
+
+        List<UserDTO> users = adminService.getUserPage(10L, 2);
+
+        assertEquals(2, users.size());
+        assertEquals(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN), users.get(0).getRoles());
+        assertEquals(5, users.get(0).getTaskCount());
+        assertEquals(2, users.get(0).getDoneTaskCount());
+        assertEquals(Set.of(Role.ROLE_USER), users.get(1).getRoles());
+        assertEquals(0, users.get(1).getTaskCount());
+    }
+
+    @Test
+    void getUserPage_WithEmptyPage_ShouldNotQueryRolesOrCounts() {
+        when(userRepository.findDTOPage(0L, PageRequest.of(0, AdminService.DEFAULT_PAGE_SIZE))).thenReturn(List.of());
+
+        assertTrue(adminService.getUserPage(null, null).isEmpty());
+        verify(userRepository, never()).findRolesByUserIds(any());
+        verifyNoInteractions(taskRepository);
+    }
+
+    private static UserRepository.UserRoleRow roleRow(Long userId, Role role) {
+        return new UserRepository.UserRoleRow() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Role getRole() {
+                return role;
+            }
+        };
+    }
+
+    private static TaskRepository.OwnerTaskCountRow countRow(Long ownerId, long taskCount, long doneTaskCount) {
+        return new TaskRepository.OwnerTaskCountRow() {
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public long getTaskCount() {
+                return taskCount;
+            }
+
+            @Override
+            public long getDoneTaskCount() {
+                return doneTaskCount;
+            }
+        };
+    }
+}
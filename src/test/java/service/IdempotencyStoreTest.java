@@ -0,0 +1,99 @@
+package service;
+
+import com.example.todo.exception.BadRequestException;
+import com.example.todo.exception.ConflictException;
+import com.example.todo.exception.NotFoundException;
+import com.example.todo.service.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private IdempotencyStore idempotencyStore;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void execute_WithSameKeyFromAnotherUser_ShouldRunAgain() {
+        idempotencyStore.execute("alice", "key", "request", this::created);
+        ResponseEntity<String> response = idempotencyStore.execute("bob", "key", "request", this::created);
+
+        assertEquals(2, calls.get());
+        assertNull(response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_WithKeyUsedForDifferentRequest_ShouldThrowConflict() {
+        idempotencyStore.execute("alice", "key", "request", this::created);
+
+        assertThrows(ConflictException.class,
+                () -> idempotencyStore.execute("alice", "key", "other request", this::created));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_WithTooLongKey_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> idempotencyStore.execute("alice", "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), "request", this::created));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldNotRememberTheFailure() {
+        assertThrows(NotFoundException.class, () -> idempotencyStore.execute("alice", "key", "request", () -> {
+            throw new NotFoundException("Can't find the task with id 1");
+        }));
+        ResponseEntity<String> response = idempotencyStore.execute("alice", "key", "request", this::created);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_WhileFirstRequestIsInFlight_ShouldWaitForItsResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyStore.execute("alice", "key", "request", () -> {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return created();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<String>> retry = CompletableFuture.supplyAsync(() ->
+                idempotencyStore.execute("alice", "key", "request", this::created));
+
+        Thread.sleep(50);
+        assertFalse(retry.isDone());
+        release.countDown();
+
+        assertEquals("created 1", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("created 1", retry.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("true", retry.get().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, calls.get());
+    }
+
+    private ResponseEntity<String> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("created " + calls.incrementAndGet());
+    }
+}
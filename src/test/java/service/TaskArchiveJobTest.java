@@ -0,0 +1,173 @@
+package service;
+
+import com.example.todo.model.dto.TaskArchiveStatus;
+import com.example.todo.model.entity.TaskTombstone;
+import com.example.todo.model.event.TaskChangedEvent;
+import com.example.todo.repository.TaskArchiveRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.TaskTombstoneRepository;
+import com.example.todo.service.TaskArchiveJob;
+import com.example.todo.service.TaskVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskArchiveJobTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskArchiveRepository taskArchiveRepository;
+
+    @Mock
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Mock
+    private TaskVersionService taskVersionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TaskArchiveJob taskArchiveJob;
+
+    @BeforeEach
+    void setUp() {
+        taskArchiveJob = new TaskArchiveJob(taskRepository, taskArchiveRepository, taskTombstoneRepository,
+                taskVersionService, eventPublisher, transactionTemplate, Duration.ofDays(30), 100, Duration.ZERO,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskArchiveJob.shutdown();
+    }
+
+    @Test
+    void start_ShouldArchiveChunksUntilNothingIsLeft() throws Exception {
+        runTransactionsInline();
+        List<TaskRepository.ArchiveCandidateRow> rows = List.of(row(1L, 10L, "alice"), row(2L, 20L, "bob"));
+        when(taskRepository.findArchiveCandidates(any(), any())).thenReturn(rows, List.of());
+        when(taskRepository.findArchiveCandidatesByIds(eq(List.of(1L, 2L)), any())).thenReturn(rows);
+        when(taskVersionService.increment("alice")).thenReturn(7L);
+        when(taskVersionService.increment("bob")).thenReturn(3L);
+
+        assertTrue(taskArchiveJob.start(null));
+        TaskArchiveStatus status = awaitIdle();
+
+        assertEquals(2, status.getArchivedTasks());
+        assertEquals(1, status.getChunks());
+        assertNull(status.getLastError());
+        verify(taskArchiveRepository).copyFromTasks(List.of(1L, 2L));
+        verify(taskTombstoneRepository).saveAll(List.of(new TaskTombstone(1L, 10L, 7L), new TaskTombstone(2L, 20L, 3L)));
+        verify(taskRepository).deleteByIds(List.of(1L, 2L));
+        InOrder lockOrder = inOrder(taskVersionService);
+        lockOrder.verify(taskVersionService).lock("alice");
+        lockOrder.verify(taskVersionService).lock("bob");
+        ArgumentCaptor<TaskChangedEvent> events = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(TaskChangedEvent.Type.DELETED, events.getAllValues().get(0).getType());
+        assertEquals(7L, events.getAllValues().get(0).getVersion());
+    }
+
+    @Test
+    void start_WhenCandidatesChangedMeanwhile_ShouldLeaveThemAlone() throws Exception {
+        runTransactionsInline();
+        when(taskRepository.findArchiveCandidates(any(), any())).thenReturn(List.of(row(1L, 10L, "alice")), List.of());
+        when(taskRepository.findArchiveCandidatesByIds(any(), any())).thenReturn(List.of());
+
+        assertTrue(taskArchiveJob.start(Duration.ofDays(1)));
+        TaskArchiveStatus status = awaitIdle();
+
+        assertEquals(0, status.getArchivedTasks());
+        verifyNoInteractions(taskArchiveRepository, taskTombstoneRepository, eventPublisher);
+        verify(taskRepository, never()).deleteByIds(any());
+        verify(taskVersionService).lock("alice");
+        verify(taskVersionService, never()).increment(any());
+    }
+
+    @Test
+    void start_ShouldOnlyChangeTheVersionsOfOwnersWithArchivedTasks() throws Exception {
+        runTransactionsInline();
+        List<TaskRepository.ArchiveCandidateRow> candidates = List.of(row(1L, 10L, "alice"), row(2L, 20L, "bob"));
+        when(taskRepository.findArchiveCandidates(any(), any())).thenReturn(candidates, List.of());
+        when(taskRepository.findArchiveCandidatesByIds(eq(List.of(1L, 2L)), any())).thenReturn(List.of(row(2L, 20L, "bob")));
+        when(taskVersionService.increment("bob")).thenReturn(3L);
+
+        assertTrue(taskArchiveJob.start(null));
+        TaskArchiveStatus status = awaitIdle();
+
+        assertEquals(1, status.getArchivedTasks());
+        verify(taskVersionService).lock("alice");
+        verify(taskVersionService).lock("bob");
+        verify(taskVersionService, never()).increment("alice");
+        verify(taskTombstoneRepository).saveAll(List.of(new TaskTombstone(2L, 20L, 3L)));
+    }
+
+    @Test
+    void throttle_ShouldApplyNewSettings() {
+        taskArchiveJob.throttle(0, Duration.ofSeconds(2));
+
+        TaskArchiveStatus status = taskArchiveJob.getStatus();
+        assertEquals(1, status.getChunkSize());
+        assertEquals(2000, status.getPauseMillis());
+        assertEquals(TaskArchiveStatus.State.IDLE, status.getState());
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private TaskArchiveStatus awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        TaskArchiveStatus status = taskArchiveJob.getStatus();
+        while ((status.getState() != TaskArchiveStatus.State.IDLE || status.getFinishedAt() == null)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = taskArchiveJob.getStatus();
+        }
+        assertEquals(TaskArchiveStatus.State.IDLE, status.getState());
+        return status;
+    }
+
+    private static TaskRepository.ArchiveCandidateRow row(Long id, Long ownerId, String ownerUsername) {
+        return new TaskRepository.ArchiveCandidateRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public String getOwnerUsername() {
+                return ownerUsername;
+            }
+        };
+    }
+}
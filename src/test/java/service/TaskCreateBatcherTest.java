@@ -0,0 +1,179 @@
+package service;
+
+import com.example.todo.exception.NotFoundException;
+import com.example.todo.exception.ServiceUnavailableException;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.service.IdempotencyStore;
+import com.example.todo.service.TaskCreateBatcher;
+import com.example.todo.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskCreateBatcherTest {
+
+    @Mock
+    private TaskService taskService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TaskCreateBatcher taskCreateBatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (taskCreateBatcher != null) {
+            taskCreateBatcher.shutdown();
+        }
+    }
+
+    @Test
+    void create_WhenDisabled_ShouldCreateDirectly() {
+        taskCreateBatcher = newBatcher(false, 10);
+        TaskDTO task = task("Direct");
+        when(taskService.create(task, "alice")).thenReturn(task);
+
+        assertSame(task, taskCreateBatcher.create(task, "alice"));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void create_WithConcurrentCallers_ShouldCommitThemInOneBatch() throws Exception {
+        taskCreateBatcher = newBatcher(true, 3);
+        runTransactionsInline();
+        when(taskService.create(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CompletableFuture<TaskDTO> first = CompletableFuture.supplyAsync(() -> taskCreateBatcher.create(task("First"), "bob"));
+        CompletableFuture<TaskDTO> second = CompletableFuture.supplyAsync(() -> taskCreateBatcher.create(task("Second"), "alice"));
+        CompletableFuture<TaskDTO> third = CompletableFuture.supplyAsync(() -> taskCreateBatcher.create(task("Third"), "carol"));
+
+        assertEquals("First", first.get(5, TimeUnit.SECONDS).getTitle());
+        assertEquals("Second", second.get(5, TimeUnit.SECONDS).getTitle());
+        assertEquals("Third", third.get(5, TimeUnit.SECONDS).getTitle());
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(taskService, times(3)).create(any(), any());
+    }
+
+    @Test
+    void create_WhenOneCreateOfTheBatchFails_ShouldRetryTheOthersAlone() throws Exception {
+        taskCreateBatcher = newBatcher(true, 2);
+        runTransactionsInline();
+        when(taskService.create(any(), eq("alice"))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(taskService.create(any(), eq("ghost"))).thenThrow(new NotFoundException("Can't find the user ghost"));
+
+        CompletableFuture<TaskDTO> valid = CompletableFuture.supplyAsync(() -> taskCreateBatcher.create(task("Valid"), "alice"));
+        CompletableFuture<TaskDTO> invalid = CompletableFuture.supplyAsync(() -> taskCreateBatcher.create(task("Invalid"), "ghost"));
+
+        assertEquals("Valid", valid.get(5, TimeUnit.SECONDS).getTitle());
+        Exception error = assertThrows(Exception.class, () -> invalid.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof NotFoundException);
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void create_WhenTimeoutExpiresWhileQueued_ShouldWithdrawIt() throws Exception {
+        taskCreateBatcher = newBatcher(true, 1, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        runTransactionsAfter(release);
+        when(taskService.create(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        try {
+            // Holds the writer, so the second create stays queued past its timeout.
+            CompletableFuture<TaskDTO> first = CompletableFuture.supplyAsync(() -> taskCreateBatcher.create(task("First"), "alice"));
+            verify(transactionTemplate, timeout(5000)).execute(any());
+
+            ServiceUnavailableException error = assertThrows(ServiceUnavailableException.class,
+                    () -> taskCreateBatcher.create(task("Queued"), "alice"));
+            assertEquals(1L, error.getRetryAfterSeconds());
+
+            release.countDown();
+            assertEquals("First", first.get(5, TimeUnit.SECONDS).getTitle());
+        } finally {
+            release.countDown();
+        }
+        verify(taskService, times(1)).create(any(), any());
+    }
+
+    @Test
+    void create_WhenTimeoutExpiresMidBatch_ShouldWaitForTheOutcomeInsteadOfInvitingARetry() throws Exception {
+        taskCreateBatcher = newBatcher(true, 1, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        runTransactionsAfter(release);
+        when(taskService.create(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        TaskDTO task = task("Slow");
+
+        try {
+            CompletableFuture<ResponseEntity<TaskDTO>> first = CompletableFuture.supplyAsync(() ->
+                    idempotencyStore.execute("alice", "key-1", task, () -> ResponseEntity.ok(taskCreateBatcher.create(task, "alice"))));
+            verify(transactionTemplate, timeout(5000)).execute(any());
+            // Well past the timeout, with the batch still running.
+            Thread.sleep(300);
+            assertFalse(first.isDone());
+
+            release.countDown();
+            assertEquals("Slow", first.get(5, TimeUnit.SECONDS).getBody().getTitle());
+        } finally {
+            release.countDown();
+        }
+        ResponseEntity<TaskDTO> retry = idempotencyStore.execute("alice", "key-1", task,
+                () -> ResponseEntity.ok(taskCreateBatcher.create(task, "alice")));
+
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        verify(taskService, times(1)).create(any(), any());
+    }
+
+    @Test
+    void create_AfterWriterDied_ShouldAnswerServiceUnavailable() {
+        taskCreateBatcher = newBatcher(true, 1);
+        when(transactionTemplate.execute(any())).thenThrow(new AssertionError("writer died"));
+
+        assertThrows(ServiceUnavailableException.class, () -> taskCreateBatcher.create(task("First"), "alice"));
+        // Refused right away instead of waiting on a writer that is gone.
+        assertThrows(ServiceUnavailableException.class, () -> taskCreateBatcher.create(task("Second"), "alice"));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    private TaskCreateBatcher newBatcher(boolean enabled, int maxBatchSize) {
+        return newBatcher(enabled, maxBatchSize, Duration.ofSeconds(5));
+    }
+
+    private TaskCreateBatcher newBatcher(boolean enabled, int maxBatchSize, Duration timeout) {
+        // A long delay, so that the batch only closes once it is full.
+        return new TaskCreateBatcher(taskService, transactionTemplate, enabled, maxBatchSize, Duration.ofSeconds(2),
+                100, timeout, 1, new SimpleMeterRegistry());
+    }
+
+    private void runTransactionsAfter(CountDownLatch release) {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static TaskDTO task(String title) {
+        return new TaskDTO(null, title, null, false);
+    }
+}
@@ -0,0 +1,160 @@
+package service;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.event.TaskChangedEvent;
+import com.example.todo.service.TaskEventStream;
+import com.example.todo.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskEventStreamTest {
+
+    @Mock
+    private TaskService taskService;
+
+    private RecordingEmitter emitter;
+    private TaskEventStream taskEventStream;
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "testuser";
+        emitter = new RecordingEmitter();
+        when(taskService.getVersion(username)).thenReturn(3L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitter.release.countDown();
+        if (taskEventStream != null) {
+            taskEventStream.shutdown();
+        }
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotThenNewerChanges() throws Exception {
+        taskEventStream = newStream(16);
+        when(taskService.getTaskSnapshot(username, 3L)).thenReturn(List.of(new TaskDTO()));
+        emitter.release.countDown();
+
+        assertSame(emitter, taskEventStream.subscribe(username));
+        await(() -> emitter.events.size() == 1);
+        taskEventStream.onTaskChanged(event(3L));
+        taskEventStream.onTaskChanged(event(4L));
+        taskEventStream.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.CREATED, "other", 9L, 5L, null));
+        await(() -> emitter.events.size() == 2);
+
+        assertTrue(emitter.events.get(0).startsWith("event:snapshot\nid:3\n"));
+        assertTrue(emitter.events.get(1).startsWith("event:deleted\nid:4\n"));
+        assertEquals(1, taskEventStream.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_WithoutTasks_ShouldSendEmptySnapshot() throws Exception {
+        taskEventStream = newStream(16);
+        when(taskService.getTaskSnapshot(username, 3L)).thenReturn(List.of());
+        emitter.release.countDown();
+
+        assertSame(emitter, taskEventStream.subscribe(username));
+        await(() -> emitter.events.size() == 1);
+
+        assertEquals("event:snapshot\nid:3\ndata:[]\n\n", emitter.events.get(0));
+        assertEquals(1, taskEventStream.getSubscriberCount());
+    }
+
+    @Test
+    void onTaskChanged_WhenBufferIsFull_ShouldDisconnectSubscriber() throws Exception {
+        taskEventStream = newStream(1);
+        when(taskService.getTaskSnapshot(username, 3L)).thenReturn(List.of(new TaskDTO()));
+        taskEventStream.subscribe(username);
+        await(() -> emitter.sending);
+
+        taskEventStream.onTaskChanged(event(4L));
+        taskEventStream.onTaskChanged(event(5L));
+
+        assertTrue(emitter.completed);
+        assertEquals(0, taskEventStream.getSubscriberCount());
+    }
+
+    @Test
+    void drain_WhenClientIsGone_ShouldRemoveSubscriber() throws Exception {
+        taskEventStream = newStream(16);
+        when(taskService.getTaskSnapshot(username, 3L)).thenReturn(List.of(new TaskDTO()));
+        emitter.failure = new IOException("Broken pipe");
+        emitter.release.countDown();
+
+        taskEventStream.subscribe(username);
+        await(() -> emitter.completed);
+
+        assertEquals(0, taskEventStream.getSubscriberCount());
+    }
+
+    private TaskEventStream newStream(int bufferSize) {
+        return new TaskEventStream(taskService, Duration.ofMinutes(1), bufferSize, 1, new SimpleMeterRegistry()) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMillis) {
+                return emitter;
+            }
+        };
+    }
+
+    private TaskChangedEvent event(long version) {
+        return new TaskChangedEvent(TaskChangedEvent.Type.DELETED, username, 1L, version, null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean sending;
+        private volatile boolean completed;
+        private volatile IOException failure;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending = true;
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            events.add(builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
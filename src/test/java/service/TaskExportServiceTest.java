@@ -0,0 +1,76 @@
+package service;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.entity.Task;
+import com.example.todo.model.mapper.TaskMapper;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TaskExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskExportServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TaskExportService taskExportService;
+
+    @BeforeEach
+    void setUp() {
+        taskExportService = new TaskExportService(taskRepository, new TaskMapper(), entityManager, new ObjectMapper());
+    }
+
+    @Test
+    void exportTasks_ShouldWriteOneJsonLinePerTaskAndDetachEntities() throws Exception {
+        Task first = task(1L, "first", false);
+        Task second = task(2L, "second", true);
+        when(taskRepository.streamByOwnerUsername("username")).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        taskExportService.exportTasks("username", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals("first", mapper.readValue(lines[0], TaskDTO.class).getTitle());
+        assertTrue(mapper.readValue(lines[1], TaskDTO.class).isDone());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void exportTasks_WithNoTasks_ShouldWriteNothing() throws Exception {
+        when(taskRepository.streamByOwnerUsername("username")).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        taskExportService.exportTasks("username", out);
+
+        assertEquals(0, out.size());
+    }
+
+    private static Task task(Long id, String title, boolean done) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        task.setDescription(title + " description");
+        task.setDone(done);
+        return task;
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.service.TaskListCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskListCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TaskListCache taskListCache;
+    private AtomicInteger loads;
+    private CountDownLatch loading;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskListCache = new TaskListCache(1000, Duration.ofMinutes(1), meterRegistry);
+        loads = new AtomicInteger();
+        loading = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @Test
+    void get_WithCachedListAtSameVersion_ShouldNotLoadAgain() {
+        release.countDown();
+        taskListCache.get("alice", 1L, blockingLoader());
+
+        List<TaskDTO> tasks = taskListCache.get("alice", 1L, blockingLoader());
+
+        assertEquals(1, tasks.size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_WhileSameUserIsLoading_ShouldShareTheLoad() throws Exception {
+        CompletableFuture<List<TaskDTO>> leader = CompletableFuture.supplyAsync(() -> taskListCache.get("alice", 2L, blockingLoader()));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<TaskDTO>> follower = CompletableFuture.supplyAsync(() -> taskListCache.get("alice", 1L, blockingLoader()));
+        awaitFollowers(1);
+
+        release.countDown();
+
+        assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("tasks.list.loads.coalesced.ratio").gauge().value());
+    }
+
+    @Test
+    void get_WithNewerVersionThanRunningLoad_ShouldLoadAgain() throws Exception {
+        CompletableFuture<List<TaskDTO>> stale = CompletableFuture.supplyAsync(() -> taskListCache.get("alice", 1L, blockingLoader()));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        taskListCache.get("alice", 2L, blockingLoader());
+        stale.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, meterRegistry.get("tasks.list.loads").tag("role", "follower").counter().count());
+    }
+
+    @Test
+    void get_WhenLoadFails_ShouldFailTheFollowersToo() throws Exception {
+        CompletableFuture<List<TaskDTO>> leader = CompletableFuture.supplyAsync(() -> taskListCache.get("alice", 1L, username -> {
+            loading.countDown();
+            awaitRelease();
+            throw new IllegalStateException("Database is down");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<TaskDTO>> follower = CompletableFuture.supplyAsync(() -> taskListCache.get("alice", 1L, blockingLoader()));
+        awaitFollowers(1);
+
+        release.countDown();
+
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(leaderError.getCause() instanceof IllegalStateException);
+        assertTrue(followerError.getCause() instanceof IllegalStateException);
+        assertEquals(0, loads.get());
+    }
+
+    private Function<String, List<TaskDTO>> blockingLoader() {
+        return username -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            awaitRelease();
+            return List.of(new TaskDTO());
+        };
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitFollowers(int followers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("tasks.list.loads").tag("role", "follower").counter().count() < followers
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
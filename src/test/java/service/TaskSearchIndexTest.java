@@ -0,0 +1,134 @@
+package service;
+
+import com.example.todo.exception.BadRequestException;
+import com.example.todo.exception.ServiceUnavailableException;
+import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.event.TaskChangedEvent;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TaskSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskSearchIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskSearchIndex taskSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        taskSearchIndex = new TaskSearchIndex(taskRepository);
+    }
+
+    @Test
+    void search_BeforeBuild_ShouldBeUnavailable() {
+        assertThrows(ServiceUnavailableException.class, () -> taskSearchIndex.search("username", "milk", null));
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesOfEveryWordAndRankTitlesFirst() {
+        build(row(1L, "Buy milk", "at the grocery", "username"),
+                row(2L, "Call mom", "about milk delivery", "username"),
+                row(3L, "Buy milk", "other user", "otheruser"),
+                row(4L, "Buy bread", null, "username"));
+
+        assertEquals(List.of(1L, 2L), ids(taskSearchIndex.search("username", "MIL", null)));
+        assertEquals(List.of(1L), ids(taskSearchIndex.search("username", "bu mil", null)));
+        assertEquals(List.of(), ids(taskSearchIndex.search("username", "milk tea", null)));
+        assertEquals(List.of(1L), ids(taskSearchIndex.search("username", "mil", 1)));
+    }
+
+    @Test
+    void search_ShouldFollowCommittedChanges() {
+        build(row(1L, "Buy milk", null, "username"));
+
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, "username", 1L, 3L,
+                new TaskDTO(1L, "Buy tea", null, false)));
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.CREATED, "username", 2L, 4L,
+                new TaskDTO(2L, "Brew tea", null, false)));
+
+        assertEquals(List.of(), ids(taskSearchIndex.search("username", "milk", null)));
+        assertEquals(List.of(1L, 2L), ids(taskSearchIndex.search("username", "tea", null)));
+
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.DELETED, "username", 1L, 5L, null));
+
+        assertEquals(List.of(2L), ids(taskSearchIndex.search("username", "tea", null)));
+    }
+
+    @Test
+    void onTaskChanged_ShouldIgnoreEventsOlderThanTheIndexedTask() {
+        build(row(1L, "Buy milk", null, "username"));
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, "username", 1L, 6L,
+                new TaskDTO(1L, "Buy tea", null, false)));
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, "username", 1L, 5L,
+                new TaskDTO(1L, "Buy coffee", null, false)));
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.DELETED, "username", 2L, 7L, null));
+        taskSearchIndex.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.CREATED, "username", 2L, 6L,
+                new TaskDTO(2L, "Buy coffee", null, false)));
+
+        assertEquals(List.of(), ids(taskSearchIndex.search("username", "coffee", null)));
+        assertEquals(List.of(1L), ids(taskSearchIndex.search("username", "tea", null)));
+    }
+
+    @Test
+    void search_WithoutWords_ShouldBeRejected() {
+        build();
+
+        assertThrows(BadRequestException.class, () -> taskSearchIndex.search("username", " -- ", null));
+    }
+
+    private void build(TaskRepository.SearchRow... rows) {
+        when(taskRepository.streamAllForSearchIndex()).thenReturn(Stream.of(rows));
+        taskSearchIndex.build();
+    }
+
+    private static List<Long> ids(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getId).collect(Collectors.toList());
+    }
+
+    private static TaskRepository.SearchRow row(Long id, String title, String description, String owner) {
+        return new TaskRepository.SearchRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public boolean isDone() {
+                return false;
+            }
+
+            @Override
+            public long getModSeq() {
+                return 1L;
+            }
+
+            @Override
+            public String getOwnerUsername() {
+                return owner;
+            }
+        };
+    }
+}
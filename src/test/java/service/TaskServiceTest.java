@@ -1,27 +1,44 @@
 package service;
 
+import com.example.todo.exception.ForbiddenException;
+import com.example.todo.exception.NotFoundException;
 import com.example.todo.model.dto.TaskDTO;
+import com.example.todo.model.dto.TaskField;
+import com.example.todo.model.dto.TaskOperation;
+import com.example.todo.model.dto.TaskOperationResult;
 import com.example.todo.model.entity.Role;
 import com.example.todo.model.entity.Task;
+import com.example.todo.model.entity.TaskTombstone;
 import com.example.todo.model.entity.User;
+import com.example.todo.model.event.TaskChangedEvent;
 import com.example.todo.model.mapper.TaskMapper;
 import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.TaskTombstoneRepository;
+import com.example.todo.service.TaskListCache;
 import com.example.todo.service.TaskService;
+import com.example.todo.service.TaskVersionService;
 import com.example.todo.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,12 +47,24 @@ public class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskTombstoneRepository taskTombstoneRepository;
+
     @Mock
     private UserService userService;
 
     @Mock
     private TaskMapper taskMapper;
 
+    @Mock
+    private TaskVersionService taskVersionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TaskListCache taskListCache = new TaskListCache(1000, Duration.ofSeconds(30), new SimpleMeterRegistry());
+
     @InjectMocks
     private TaskService taskService;
 
@@ -75,23 +104,21 @@ public class TaskServiceTest {
     @Test
     void getTasksForUser_WithValidUsername_ShouldReturnTaskList() {
         String username = "username";
-        List<Task> tasks = Arrays.asList(task);
-        when(taskRepository.findByOwnerUsername(username)).thenReturn(tasks);
-        when(taskMapper.taskToTaskDTO(task)).thenReturn(taskDTO);
+        List<TaskDTO> tasks = Arrays.asList(taskDTO);
+        when(taskRepository.findDTOsByOwnerUsername(username)).thenReturn(tasks);
 
         List<TaskDTO> result = taskService.getTasksForUser(username);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("task title", result.get(0).getTitle());
-        verify(taskRepository, times(1)).findByOwnerUsername(username);
-        verify(taskMapper, times(1)).taskToTaskDTO(task);
+        verify(taskRepository, times(1)).findDTOsByOwnerUsername(username);
+        verifyNoInteractions(taskMapper);
     }
 
     @Test
     void getTasksForUser_ShouldReturnTaskDTOList_WhenTasksExist() {
-        when(taskRepository.findByOwnerUsername(user.getUsername())).thenReturn(List.of(task));
-        when(taskMapper.taskToTaskDTO(task)).thenReturn(taskDTO);
+        when(taskRepository.findDTOsByOwnerUsername(user.getUsername())).thenReturn(List.of(taskDTO));
 
         List<TaskDTO> result = taskService.getTasksForUser(user.getUsername());
 
@@ -99,8 +126,120 @@ public class TaskServiceTest {
         assertEquals(1, result.size());
         assertSame(taskDTO, result.get(0));
 
-        verify(taskRepository).findByOwnerUsername(user.getUsername());
-        verify(taskMapper).taskToTaskDTO(task);
+        verify(taskRepository).findDTOsByOwnerUsername(user.getUsername());
+    }
+
+    @Test
+    void getTasksForUser_WithoutTasks_ShouldThrowNotFound() {
+        when(taskRepository.findDTOsByOwnerUsername("username")).thenReturn(List.of());
+
+        assertThrows(NotFoundException.class, () -> taskService.getTasksForUser("username", 0L));
+    }
+
+    @Test
+    void getTaskFields_WithoutTasks_ShouldThrowNotFoundLikeTheFullList() {
+        Set<TaskField> fields = EnumSet.of(TaskField.ID, TaskField.TITLE);
+        when(taskRepository.findFieldsByOwnerUsername("username", fields, 0L, null, null, null)).thenReturn(List.of());
+
+        assertThrows(NotFoundException.class,
+                () -> taskService.getTaskFields("username", fields, null, null, null, null));
+    }
+
+    @Test
+    void getTaskFields_WithLimitAndNoTasks_ShouldReturnEmptyPage() {
+        Set<TaskField> fields = EnumSet.of(TaskField.ID, TaskField.TITLE);
+        when(taskRepository.findFieldsByOwnerUsername("username", fields, 0L, null, null, 10)).thenReturn(List.of());
+
+        assertTrue(taskService.getTaskFields("username", fields, null, 10, null, null).isEmpty());
+    }
+
+    @Test
+    void getTaskSnapshot_WithoutTasks_ShouldReturnEmptyList() {
+        when(taskRepository.findDTOsByOwnerUsername("username")).thenReturn(List.of());
+
+        assertTrue(taskService.getTaskSnapshot("username", 0L).isEmpty());
+    }
+
+    @Test
+    void getTasksForUser_WhenCached_ShouldNotQueryRepositoryAgain() {
+        when(taskRepository.findDTOsByOwnerUsername("username")).thenReturn(List.of(taskDTO));
+
+        List<TaskDTO> first = taskService.getTasksForUser("username");
+        List<TaskDTO> second = taskService.getTasksForUser("username");
+
+        assertSame(first, second);
+        verify(taskRepository, times(1)).findDTOsByOwnerUsername("username");
+    }
+
+    @Test
+    void getTasksForUser_AfterTaskDeleted_ShouldReloadFromRepository() {
+        when(taskRepository.findDTOsByOwnerUsername("username")).thenReturn(List.of(taskDTO));
+        when(taskRepository.deleteOwned(1L, "username")).thenReturn(1);
+        taskService.getTasksForUser("username");
+
+        taskService.delete(1L, "username");
+        ArgumentCaptor<TaskChangedEvent> event = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TaskChangedEvent.Type.DELETED, event.getValue().getType());
+        taskListCache.onTaskChanged(event.getValue());
+        taskService.getTasksForUser("username");
+
+        verify(taskRepository, times(2)).findDTOsByOwnerUsername("username");
+    }
+
+    @Test
+    void getTasksForUser_WithNewerVersionThanCached_ShouldReloadFromRepository() {
+        when(taskRepository.findDTOsByOwnerUsername("username")).thenReturn(List.of(taskDTO));
+
+        taskService.getTasksForUser("username", 4L);
+        taskService.getTasksForUser("username", 3L);
+        taskService.getTasksForUser("username", 5L);
+
+        verify(taskRepository, times(2)).findDTOsByOwnerUsername("username");
+    }
+
+    @Test
+    void getTask_WhenUserIsOwner_ShouldReturnTask() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(taskMapper.taskToTaskDTO(task)).thenReturn(taskDTO);
+
+        assertSame(taskDTO, taskService.getTask(1L, "username"));
+    }
+
+    @Test
+    void getTask_WhenUserNotOwner_ShouldThrowForbidden() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        assertThrows(ForbiddenException.class, () -> taskService.getTask(1L, "otheruser"));
+        verifyNoInteractions(taskMapper);
+    }
+
+    @Test
+    void getTask_WhenTaskNotFound_ShouldThrowNotFound() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> taskService.getTask(1L, "username"));
+    }
+
+    @Test
+    void getTaskPage_ShouldEscapeTitlePrefixAndCapPageSize() {
+        when(taskRepository.findPageByOwnerUsername("username", 5L, true, "50!%!_off!_%",
+                PageRequest.of(0, TaskService.MAX_PAGE_SIZE))).thenReturn(List.of(taskDTO));
+
+        List<TaskDTO> result = taskService.getTaskPage("username", 5L, 1_000_000, true, "50%_off_");
+
+        assertEquals(1, result.size());
+        assertSame(taskDTO, result.get(0));
+    }
+
+    @Test
+    void getTaskPage_WithoutCursor_ShouldStartFromFirstTask() {
+        when(taskRepository.findPageByOwnerUsername("username", 0L, null, null,
+                PageRequest.of(0, TaskService.DEFAULT_PAGE_SIZE))).thenReturn(List.of());
+
+        List<TaskDTO> result = taskService.getTaskPage("username", null, null, null, null);
+
+        assertTrue(result.isEmpty());
     }
 
     // ====== CREATE TESTS ========
@@ -169,82 +308,210 @@ public class TaskServiceTest {
         taskDTO.setTitle("Updated Title");
         taskDTO.setDone(false);
 
-        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
         when(userService.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-        when(taskRepository.save(task)).thenReturn(task);
-        when(taskMapper.taskToTaskDTO(task)).thenReturn(taskDTO);
+        when(taskRepository.updateOwned(task.getId(), user.getUsername(), "Updated Title",
+                "[Internal Use] task description", false, 8L)).thenReturn(1);
+        when(taskVersionService.increment(user.getUsername())).thenReturn(8L);
 
         ResponseEntity<TaskDTO> response = taskService.update(task.getId(), taskDTO, user.getUsername());
 
         assertNotNull(response);
-        assertEquals("Updated Title", task.getTitle());
-        assertFalse(task.isDone());
-        verify(taskRepository).save(task);
+        assertEquals("Updated Title", response.getBody().getTitle());
+        assertEquals(task.getId(), response.getBody().getId());
+        assertFalse(response.getBody().isDone());
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).save(any());
+        ArgumentCaptor<TaskChangedEvent> event = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(8L, event.getValue().getVersion());
     }
 
     @Test
     void update_ShouldUpdateTitleAndDescription_WhenUserIsOwner() {
         taskDTO.setTitle("New Title");
-        taskDTO.setDescription("New Description");
+        taskDTO.setDescription("[Internal Use] New Description");
 
-        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
         when(userService.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-        when(taskRepository.save(task)).thenReturn(task);
-        when(taskMapper.taskToTaskDTO(task)).thenReturn(taskDTO);
+        when(taskRepository.updateOwned(task.getId(), user.getUsername(), "New Title",
+                "[Internal Use] New Description", false, 0L)).thenReturn(1);
 
         ResponseEntity<TaskDTO> response = taskService.update(task.getId(), taskDTO, user.getUsername());
 
-        assertEquals("New Title", task.getTitle());
-        assertEquals("New Description", task.getDescription());
+        assertEquals("New Title", response.getBody().getTitle());
+        assertEquals("[Internal Use] New Description", response.getBody().getDescription());
     }
 
     @Test
     void update_ShouldAllowAdminToUpdateTitleAndSetDoneTrue() {
         taskDTO.setTitle("Admin Update");
         taskDTO.setDone(true);
-        task.setOwner(admin);
 
-        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
         when(userService.findByUsername(admin.getUsername())).thenReturn(Optional.of(admin));
-        when(taskRepository.save(task)).thenReturn(task);
-        when(taskMapper.taskToTaskDTO(task)).thenReturn(taskDTO);
+        when(taskRepository.updateOwned(task.getId(), admin.getUsername(), "Admin Update",
+                "[Internal Use] task description", true, 0L)).thenReturn(1);
 
         ResponseEntity<TaskDTO> response = taskService.update(task.getId(), taskDTO, admin.getUsername());
 
-        assertEquals("Admin Update", task.getTitle());
-        assertTrue(task.isDone());
         assertNotNull(response);
+        assertEquals("Admin Update", response.getBody().getTitle());
+        assertTrue(response.getBody().isDone());
+    }
+
+    @Test
+    void update_WhenNonAdminSetsDone_ShouldThrowForbiddenWithoutWriting() {
+        taskDTO.setDone(true);
+        when(userService.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(taskRepository.existsById(task.getId())).thenReturn(true);
+
+        assertThrows(ForbiddenException.class, () -> taskService.update(task.getId(), taskDTO, user.getUsername()));
+
+        verify(taskRepository, never()).updateOwned(any(), any(), any(), any(), anyBoolean(), anyLong());
+        verify(taskVersionService, never()).increment(any());
+    }
+
+    @Test
+    void update_WhenNonAdminSetsDoneOnMissingTask_ShouldThrowNotFound() {
+        taskDTO.setDone(true);
+        when(userService.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(taskRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> taskService.update(99L, taskDTO, user.getUsername()));
+
+        verify(taskRepository, never()).updateOwned(any(), any(), any(), any(), anyBoolean(), anyLong());
+    }
+
+    @Test
+    void update_WhenUserNotOwner_ShouldThrowForbidden() {
+        when(userService.findByUsername("differentuser")).thenReturn(Optional.empty());
+        when(taskRepository.updateOwned(task.getId(), "differentuser", "task title",
+                "[Internal Use] task description", false, 0L)).thenReturn(0);
+        when(taskRepository.existsById(task.getId())).thenReturn(true);
+
+        assertThrows(ForbiddenException.class, () -> taskService.update(task.getId(), taskDTO, "differentuser"));
+    }
+
+    @Test
+    void update_WhenTaskNotFound_ShouldThrowNotFound() {
+        when(userService.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(taskRepository.updateOwned(99L, user.getUsername(), "task title",
+                "[Internal Use] task description", false, 0L)).thenReturn(0);
+        when(taskRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> taskService.update(99L, taskDTO, user.getUsername()));
     }
 
     // ========== delete TESTS ==========
 
     @Test
-    void delete_WhenUserNotOwner_ShouldReturnForbidden() {
+    void delete_WhenUserIsOwner_ShouldReturnNoContent() {
+        when(taskVersionService.increment("username")).thenReturn(5L);
+        when(taskRepository.deleteOwned(1L, "username")).thenReturn(1);
+        when(userService.findByUsername("username")).thenReturn(Optional.of(user));
+
+        ResponseEntity<?> response = taskService.delete(1L, "username");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(taskRepository, never()).existsById(any());
+        verify(taskTombstoneRepository).save(new TaskTombstone(1L, 1L, 5L));
+    }
+
+    @Test
+    void delete_WhenUserNotOwner_ShouldThrowForbidden() {
         Long taskId = 1L;
         String differentUsername = "differentuser";
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskRepository.deleteOwned(taskId, differentUsername)).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(true);
 
-        ResponseEntity<?> response = taskService.delete(taskId, differentUsername);
+        // Thrown rather than returned, so that the transaction rolls the version increment back.
+        assertThrows(ForbiddenException.class, () -> taskService.delete(taskId, differentUsername));
 
-        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
-        verify(taskRepository, times(1)).findById(taskId);
+        verify(taskRepository, times(1)).deleteOwned(taskId, differentUsername);
         verify(taskRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher, taskTombstoneRepository);
     }
 
     @Test
     void delete_WhenTaskNotFound_ShouldThrowException() {
         Long taskId = 99L;
         String username = "regularuser";
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepository.deleteOwned(taskId, username)).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(false);
 
         assertThrows(RuntimeException.class, () -> {
             taskService.delete(taskId, username);
         });
 
-        verify(taskRepository, times(1)).findById(taskId);
+        verify(taskRepository, times(1)).existsById(taskId);
         verify(taskRepository, never()).delete(any());
     }
 
+    // ========== batch TESTS ==========
+
+    @Test
+    void applyBatch_ShouldReportOneResultPerOperation() {
+        Task otherUsersTask = new Task();
+        otherUsersTask.setId(2L);
+        otherUsersTask.setOwner(admin);
+
+        TaskDTO doneDTO = new TaskDTO(null, "new", "desc", true);
+        TaskOperation create = new TaskOperation(TaskOperation.Type.CREATE, null, doneDTO);
+        TaskOperation update = new TaskOperation(TaskOperation.Type.UPDATE, 2L, taskDTO);
+        TaskOperation delete = new TaskOperation(TaskOperation.Type.DELETE, 1L, null);
+        TaskOperation missing = new TaskOperation(TaskOperation.Type.DELETE, 99L, null);
+
+        Task created = new Task();
+        created.setDone(true);
+        when(userService.findByUsername("username")).thenReturn(Optional.of(user));
+        when(taskRepository.findAllById(List.of(2L, 1L, 99L))).thenReturn(List.of(otherUsersTask, task));
+        when(taskMapper.taskDTOToTask(doneDTO)).thenReturn(created);
+        when(taskRepository.save(created)).thenReturn(created);
+        when(taskMapper.taskToTaskDTO(created)).thenReturn(new TaskDTO(3L, "new", "desc", false));
+
+        List<TaskOperationResult> results = taskService.applyBatch(List.of(create, update, delete, missing), "username");
+
+        assertEquals(4, results.size());
+        assertEquals(HttpStatus.CREATED.value(), results.get(0).getStatus());
+        assertFalse(created.isDone());
+        assertSame(user, created.getOwner());
+        assertEquals(HttpStatus.FORBIDDEN.value(), results.get(1).getStatus());
+        assertEquals(HttpStatus.NO_CONTENT.value(), results.get(2).getStatus());
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(3).getStatus());
+        verify(taskRepository, times(1)).delete(task);
+        verify(taskRepository, never()).save(otherUsersTask);
+        verify(taskVersionService).lock("username");
+        verify(taskVersionService, times(1)).increment("username");
+    }
+
+    @Test
+    void applyBatch_WithNonAdminSettingDone_ShouldRejectTheUpdateOnly() {
+        TaskDTO doneDTO = new TaskDTO(1L, "title", "desc", true);
+        when(userService.findByUsername("username")).thenReturn(Optional.of(user));
+        when(taskRepository.findAllById(List.of(1L))).thenReturn(List.of(task));
+
+        List<TaskOperationResult> results = taskService.applyBatch(
+                List.of(new TaskOperation(TaskOperation.Type.UPDATE, 1L, doneDTO)), "username");
+
+        assertEquals(HttpStatus.FORBIDDEN.value(), results.get(0).getStatus());
+        assertFalse(task.isDone());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void applyBatch_WhenEveryOperationFails_ShouldNotChangeTheVersion() {
+        TaskOperation missing = new TaskOperation(TaskOperation.Type.DELETE, 99L, null);
+        TaskOperation withoutTask = new TaskOperation(TaskOperation.Type.CREATE, null, null);
+        when(userService.findByUsername("username")).thenReturn(Optional.of(user));
+        when(taskRepository.findAllById(List.of(99L))).thenReturn(List.of());
+
+        List<TaskOperationResult> results = taskService.applyBatch(List.of(missing, withoutTask), "username");
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).getStatus());
+        verify(taskVersionService).lock("username");
+        verify(taskVersionService, never()).increment(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     // ========== hasAdminRole TESTS ==========
 
     @Test
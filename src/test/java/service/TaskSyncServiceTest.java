@@ -0,0 +1,157 @@
+package service;
+
+import com.example.todo.model.dto.TaskChangesDTO;
+import com.example.todo.model.entity.TaskTombstone;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.repository.TaskTombstoneRepository;
+import com.example.todo.service.TaskSyncService;
+import com.example.todo.service.TaskVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskSyncServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Mock
+    private TaskVersionService taskVersionService;
+
+    private TaskSyncService taskSyncService;
+
+    @BeforeEach
+    void setUp() {
+        taskSyncService = new TaskSyncService(taskRepository, taskTombstoneRepository, taskVersionService);
+    }
+
+    @Test
+    void getChanges_ShouldMergeTasksAndTombstonesInSequenceOrder() {
+        when(taskVersionService.currentVersion("username")).thenReturn(9L);
+        when(taskRepository.findChangesByOwnerUsername("username", 3L, 0L, 9L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(task(4L, 5L), task(2L, 7L)));
+        when(taskTombstoneRepository.findChangesByOwnerUsername("username", 3L, 0L, 9L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(new TaskTombstone(1L, 1L, 5L), new TaskTombstone(3L, 1L, 6L)));
+
+        TaskChangesDTO result = taskSyncService.getChanges("username", 3L, 0L, 10);
+
+        assertEquals(4, result.getChanges().size());
+        assertEquals(1L, result.getChanges().get(0).getId());
+        assertTrue(result.getChanges().get(0).isDeleted());
+        assertNull(result.getChanges().get(0).getTask());
+        assertEquals(4L, result.getChanges().get(1).getId());
+        assertEquals("task 4", result.getChanges().get(1).getTask().getTitle());
+        assertEquals(3L, result.getChanges().get(2).getId());
+        assertEquals(2L, result.getChanges().get(3).getId());
+        assertFalse(result.isHasMore());
+        assertEquals(9L, result.getNextSince());
+        assertEquals(0L, result.getNextAfterId());
+    }
+
+    @Test
+    void getChanges_WithFullPage_ShouldReturnCursorOfLastChange() {
+        when(taskVersionService.currentVersion("username")).thenReturn(9L);
+        when(taskRepository.findChangesByOwnerUsername("username", 0L, 0L, 9L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(task(1L, 4L), task(2L, 4L), task(5L, 4L)));
+        when(taskTombstoneRepository.findChangesByOwnerUsername("username", 0L, 0L, 9L, PageRequest.of(0, 3)))
+                .thenReturn(List.of());
+
+        TaskChangesDTO result = taskSyncService.getChanges("username", 0L, 0L, 2);
+
+        assertEquals(2, result.getChanges().size());
+        assertTrue(result.isHasMore());
+        assertEquals(4L, result.getNextSince());
+        assertEquals(2L, result.getNextAfterId());
+    }
+
+    @Test
+    void getChanges_WithoutChanges_ShouldKeepWatermark() {
+        when(taskVersionService.currentVersion("username")).thenReturn(4L);
+
+        TaskChangesDTO result = taskSyncService.getChanges("username", 4L, 0L, null);
+
+        assertTrue(result.getChanges().isEmpty());
+        assertFalse(result.isHasMore());
+        assertEquals(4L, result.getNextSince());
+    }
+
+    @Test
+    void getChanges_WithCommitBetweenReads_ShouldStopAtVersionReadFirst() {
+        // Version 10 deletes task 6 and commits after the task query but before the tombstone query.
+        AtomicBoolean committed = new AtomicBoolean();
+        when(taskVersionService.currentVersion("username")).thenAnswer(invocation -> committed.get() ? 10L : 9L);
+        when(taskRepository.findChangesByOwnerUsername(eq("username"), anyLong(), anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long since = invocation.getArgument(1);
+                    List<TaskRepository.ChangeRow> tasks = !committed.get() && since < 9L
+                            ? List.of(task(6L, 8L))
+                            : List.<TaskRepository.ChangeRow>of();
+                    committed.set(true);
+                    return tasks;
+                });
+        when(taskTombstoneRepository.findChangesByOwnerUsername(eq("username"), anyLong(), anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long since = invocation.getArgument(1);
+                    long version = invocation.getArgument(3);
+                    return committed.get() && since < 10L && version >= 10L
+                            ? List.of(new TaskTombstone(6L, 1L, 10L))
+                            : List.of();
+                });
+
+        TaskChangesDTO first = taskSyncService.getChanges("username", 8L, 0L, null);
+
+        assertEquals(1, first.getChanges().size());
+        assertFalse(first.getChanges().get(0).isDeleted());
+        assertEquals(9L, first.getNextSince());
+        assertEquals(0L, first.getNextAfterId());
+
+        TaskChangesDTO second = taskSyncService.getChanges("username", first.getNextSince(), first.getNextAfterId(), null);
+
+        assertEquals(1, second.getChanges().size());
+        assertTrue(second.getChanges().get(0).isDeleted());
+        assertEquals(6L, second.getChanges().get(0).getId());
+        assertEquals(10L, second.getNextSince());
+    }
+
+    private static TaskRepository.ChangeRow task(Long id, long modSeq) {
+        return new TaskRepository.ChangeRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return "task " + id;
+            }
+
+            @Override
+            public String getDescription() {
+                return null;
+            }
+
+            @Override
+            public boolean isDone() {
+                return false;
+            }
+
+            @Override
+            public long getModSeq() {
+                return modSeq;
+            }
+        };
+    }
+}
@@ -1,15 +1,20 @@
 package service;
 
 import com.example.todo.model.entity.Role;
+import com.example.todo.model.entity.TaskVersion;
 import com.example.todo.model.entity.User;
+import com.example.todo.model.event.UserChangedEvent;
+import com.example.todo.repository.TaskVersionRepository;
 import com.example.todo.repository.UserRepository;
 import com.example.todo.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,6 +38,12 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TaskVersionRepository taskVersionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -72,6 +83,8 @@ public class UserServiceTest {
                         user.getPassword().equals(encodedPassword) &&
                         user.getRoles().equals(Set.of(Role.ROLE_USER))
         ));
+        verify(taskVersionRepository).save(argThat(taskVersion ->
+                taskVersion.getOwnerId() == 1L && taskVersion.getVersion() == 0L));
     }
 
     @Test
@@ -89,6 +102,7 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findByUsername(username);
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
+        verify(taskVersionRepository, never()).save(any(TaskVersion.class));
     }
 
     @Test
@@ -196,4 +210,40 @@ public class UserServiceTest {
         assertTrue(userDetails.getAuthorities().isEmpty());
     }
 
+    // ========== updatePassword TESTS ==========
+
+    @Test
+    void updatePassword_WithExistingUser_ShouldStoreNewHash() {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("testuser")
+                .password("encodedPassword")
+                .authorities("ROLE_USER")
+                .build();
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        UserDetails updated = userService.updatePassword(userDetails, "{bcrypt}rehashedPassword");
+
+        assertEquals("{bcrypt}rehashedPassword", updated.getPassword());
+        assertEquals("{bcrypt}rehashedPassword", testUser.getPassword());
+        verify(userRepository, times(1)).save(testUser);
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("testuser", event.getValue().getUsername());
+    }
+
+    @Test
+    void updatePassword_WithUnknownUser_ShouldNotSave() {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("ghost")
+                .password("encodedPassword")
+                .authorities("ROLE_USER")
+                .build();
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        UserDetails updated = userService.updatePassword(userDetails, "{bcrypt}rehashedPassword");
+
+        assertEquals("{bcrypt}rehashedPassword", updated.getPassword());
+        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(eventPublisher);
+    }
 }